@@ -1,6 +1,7 @@
 plugins {
     `maven-publish`
     id("hytale-mod") version "0.+"
+    alias(libs.plugins.jmh)
 }
 
 group = "hexvane"
@@ -38,6 +39,20 @@ java {
     withSourcesJar()
 }
 
+// Benchmarks for the search engine, see src/jmh. Run with ./gradlew jmh
+configurations.named("jmhImplementation") {
+    // Benchmarks run outside a server and need the Hytale classes the plugin only compiles against
+    extendsFrom(configurations.compileOnly.get())
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+}
+
 tasks.withType<JavaCompile> {
     options.compilerArgs.add("-Xlint:deprecation")
     options.compilerArgs.add("-Xlint:unchecked")
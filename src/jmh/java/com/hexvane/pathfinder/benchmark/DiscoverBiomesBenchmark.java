@@ -0,0 +1,34 @@
+package com.hexvane.pathfinder.benchmark;
+
+import com.hexvane.pathfinder.PathfinderSearchUtil;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Biome discovery sampling, as used by the biome list when the generator's biome registry is unavailable. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiscoverBiomesBenchmark {
+    @Param({"1000", "2000", "5000"})
+    public int radius;
+
+    private SyntheticBiomeGenerator generator;
+
+    @Setup
+    public void setUp() {
+        this.generator = new SyntheticBiomeGenerator(42L, 384, 16, 24);
+    }
+
+    @Benchmark
+    public Set<String> discover() {
+        return PathfinderSearchUtil.discoverBiomes(this.generator::sampleGrid, 0, 0, this.radius);
+    }
+}
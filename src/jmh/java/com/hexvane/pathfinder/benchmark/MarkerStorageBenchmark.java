@@ -0,0 +1,93 @@
+package com.hexvane.pathfinder.benchmark;
+
+import com.hexvane.pathfinder.PathfinderMarkerFactory;
+import com.hexvane.pathfinder.PathfinderMarkerStorage;
+import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Marker storage reads as done by the world map marker provider for every player on every update, alone and
+ * while another thread keeps replacing markers, as searches completing on the world thread do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkerStorageBenchmark {
+    private static final String WORLD = "benchmark";
+
+    @Param({"100"})
+    public int players;
+
+    @Param({"1", "16"})
+    public int markersPerPlayer;
+
+    private UUID[] playerIds;
+    /** Two different marker sets per player; the writer alternates them so every write replaces the markers. */
+    private MapMarker[][][] markerSets;
+
+    @Setup
+    public void setUp() {
+        this.playerIds = new UUID[this.players];
+        this.markerSets = new MapMarker[2][this.players][];
+        for (int p = 0; p < this.players; p++) {
+            this.playerIds[p] = new UUID(0L, p);
+            for (int set = 0; set < 2; set++) {
+                MapMarker[] markers = new MapMarker[this.markersPerPlayer];
+                for (int m = 0; m < markers.length; m++) {
+                    markers[m] = PathfinderMarkerFactory.create(
+                            "pathfinder_Synthetic_" + m + "_" + p, "Synthetic_" + m, "Coordinate.png",
+                            m * 100.0 + set, 128.0, p * 100.0
+                    );
+                }
+                this.markerSets[set][p] = markers;
+            }
+            PathfinderMarkerStorage.setMarkers(WORLD, this.playerIds[p], this.markerSets[0][p]);
+        }
+    }
+
+    /** Rotates through the players independently on every benchmark thread. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MapMarker[] read(Cursor cursor) {
+        return this.readNext(cursor);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public MapMarker[] readers(Cursor cursor) {
+        return this.readNext(cursor);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void writer(Cursor cursor) {
+        int step = cursor.next++;
+        int player = step % this.players;
+        // Each pass over the players swaps to the other set, starting with the one setUp did not store
+        int set = (step / this.players + 1) & 1;
+        PathfinderMarkerStorage.setMarkers(WORLD, this.playerIds[player], this.markerSets[set][player]);
+    }
+
+    private MapMarker[] readNext(Cursor cursor) {
+        return PathfinderMarkerStorage.getMarkers(WORLD, this.playerIds[cursor.next++ % this.players]);
+    }
+}
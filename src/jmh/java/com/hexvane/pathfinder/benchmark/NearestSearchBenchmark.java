@@ -0,0 +1,69 @@
+package com.hexvane.pathfinder.benchmark;
+
+import com.hexvane.pathfinder.PathfinderBatchSearch;
+import com.hexvane.pathfinder.PathfinderParallelSearch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Nearest-biome search over the synthetic generator at several radii and target rarities. Rare targets are often
+ * not found within small radii, which measures the full-radius worst case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NearestSearchBenchmark {
+    private static final int STRIDE = 16;
+
+    @Param({"1000", "2500", "5000"})
+    public int radius;
+
+    /** One in this many biome patches is the target. */
+    @Param({"4", "64", "1024"})
+    public int rarity;
+
+    private ForkJoinPool pool;
+    private SyntheticBiomeGenerator generator;
+    private int[] batchTargets;
+
+    @Setup
+    public void setUp() {
+        this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.generator = new SyntheticBiomeGenerator(42L, 384, this.rarity, 24);
+        int[] ids = this.generator.getBiomeIds();
+        this.batchTargets = new int[] {ids[0], ids[1], ids[2], ids[3]};
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] nearest() {
+        SyntheticBiomeGenerator generator = this.generator;
+        int target = generator.getTargetId();
+        return new PathfinderParallelSearch(
+                this.pool, 0, 0, STRIDE, this.radius,
+                (x, z) -> generator.biomeIdAt(x, z) == target,
+                () -> false
+        ).run();
+    }
+
+    @Benchmark
+    public int[][] nearestBatch() {
+        PathfinderBatchSearch.CellSampler sampler = this.generator::biomeIdAt;
+        return new PathfinderBatchSearch(
+                this.pool, 0, 0, STRIDE, this.radius, this.batchTargets, sampler, () -> false
+        ).run();
+    }
+}
@@ -0,0 +1,39 @@
+package com.hexvane.pathfinder.benchmark;
+
+import com.hexvane.pathfinder.PathfinderRingOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Cost of walking the shared ring order alone, without sampling any biome. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RingWalkBenchmark {
+    /** Number of rings; 312 rings of 16 blocks cover the default 5000-block search radius. */
+    @Param({"64", "156", "312"})
+    public int rings;
+
+    private PathfinderRingOrder order;
+
+    @Setup
+    public void setUp() {
+        this.order = PathfinderRingOrder.forRings(this.rings);
+    }
+
+    @Benchmark
+    public void walk(Blackhole blackhole) {
+        int cells = this.order.cellsWithin(this.rings);
+        for (int i = 0; i < cells; i++) {
+            int packed = this.order.cell(i);
+            blackhole.consume(PathfinderRingOrder.offsetX(packed) + PathfinderRingOrder.offsetZ(packed));
+        }
+    }
+}
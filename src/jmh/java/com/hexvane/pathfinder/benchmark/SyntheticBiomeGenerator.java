@@ -0,0 +1,108 @@
+package com.hexvane.pathfinder.benchmark;
+
+import com.hexvane.pathfinder.PathfinderBiomeCatalog;
+import com.hexvane.pathfinder.PathfinderBiomeIds;
+import com.hexvane.pathfinder.PathfinderBiomeSampler;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Deterministic {@link PathfinderBiomeSampler} standing in for ChunkGenerator.getZoneBiomeResultAt, so search code
+ * can be measured without a server.
+ * <p>
+ * The world is split into cells of {@code cellSize} blocks, each holding one jittered feature point. A column gets
+ * the biome of the nearest feature point, which gives irregular, Voronoi-shaped biome patches. One in
+ * {@code targetRarity} points carries the target biome; all others carry one of the filler biomes.
+ */
+public final class SyntheticBiomeGenerator implements PathfinderBiomeSampler {
+    private final long seed;
+    private final int cellSize;
+    private final int targetRarity;
+    private final int targetId;
+    private final int[] fillerIds;
+    private final PathfinderBiomeCatalog catalog;
+
+    /**
+     * @param seed Seed of the feature point layout
+     * @param cellSize Average patch size in blocks
+     * @param targetRarity One in this many patches is the target biome
+     * @param fillerBiomes Number of filler biomes besides the target
+     */
+    public SyntheticBiomeGenerator(long seed, int cellSize, int targetRarity, int fillerBiomes) {
+        this.seed = seed;
+        this.cellSize = cellSize;
+        this.targetRarity = Math.max(1, targetRarity);
+        this.targetId = PathfinderBiomeIds.intern("Synthetic_Target");
+        this.fillerIds = new int[Math.max(1, fillerBiomes)];
+        for (int i = 0; i < this.fillerIds.length; i++) {
+            this.fillerIds[i] = PathfinderBiomeIds.intern("Synthetic_" + i);
+        }
+        List<String> names = new ArrayList<>();
+        for (int id : this.getBiomeIds()) {
+            names.add(PathfinderBiomeIds.nameOf(id));
+        }
+        this.catalog = PathfinderBiomeCatalog.of(names);
+    }
+
+    public int getTargetId() {
+        return this.targetId;
+    }
+
+    /** ID of the target biome followed by the filler biome IDs. */
+    @Nonnull
+    public int[] getBiomeIds() {
+        int[] ids = new int[this.fillerIds.length + 1];
+        ids[0] = this.targetId;
+        System.arraycopy(this.fillerIds, 0, ids, 1, this.fillerIds.length);
+        return ids;
+    }
+
+    @Override
+    public int biomeIdAt(int x, int z) {
+        int cellX = Math.floorDiv(x, this.cellSize);
+        int cellZ = Math.floorDiv(z, this.cellSize);
+        long nearest = 0;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                long hash = this.hash(cellX + dx, cellZ + dz);
+                long pointX = (long) (cellX + dx) * this.cellSize + Math.floorMod(hash, this.cellSize);
+                long pointZ = (long) (cellZ + dz) * this.cellSize + Math.floorMod(hash >>> 20, this.cellSize);
+                long distance = (pointX - x) * (pointX - x) + (pointZ - z) * (pointZ - z);
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = hash;
+                }
+            }
+        }
+        if (Math.floorMod(nearest >>> 40, this.targetRarity) == 0) {
+            return this.targetId;
+        }
+        return this.fillerIds[Math.floorMod(nearest >>> 8, this.fillerIds.length)];
+    }
+
+    @Nonnull
+    @Override
+    public PathfinderBiomeCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    @Nonnull
+    @Override
+    public Object getSource() {
+        return this;
+    }
+
+    @Override
+    public int getSeed() {
+        return (int) this.seed;
+    }
+
+    private long hash(int cellX, int cellZ) {
+        long h = this.seed ^ ((long) cellX * 0x9E3779B97F4A7C15L) ^ ((long) cellZ * 0xC2B2AE3D27D4EB4FL);
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
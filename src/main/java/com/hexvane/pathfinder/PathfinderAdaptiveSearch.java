@@ -0,0 +1,250 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Coarse-to-fine biome search.
+ * <ol>
+ *   <li>Sweep rings at the coarse stride (a multiple of the fine stride), starting with the coarse center cell,
+ *       until a ring contains the target.</li>
+ *   <li>Re-walk only the fine rings between the last empty coarse ring and the hit ring at the fine stride.
+ *       Both passes share one center, so the coarse hit is itself a fine lattice point and this pass always
+ *       finds a hit.</li>
+ *   <li>Check the fine lattice points within one coarse step of the coarse hit, nearest to the start first.
+ *       These include points inside the last empty coarse ring, which the re-walk does not cover. The result
+ *       is the matching point closest to the start, so it lies on the same lattice as an exact search.</li>
+ *   <li>Bisect per block column between that point and its nearest fine lattice neighbour that does not match,
+ *       with exact samples, so the result is the last target column before the biome boundary on that line.</li>
+ * </ol>
+ * For a hit found k coarse rings out, this costs about &pi;k<sup>2</sup> + 2&pi;k * (coarse / fine)<sup>2</sup>
+ * samples instead of &pi;(k * coarse / fine)<sup>2</sup>, roughly an order of magnitude fewer for a coarse stride of 64.
+ * The trade-off is that a biome patch narrower than the coarse stride can be missed or found later than the
+ * exact walk would find it.
+ * <p>
+ * With {@link #collectHits(int)} the fine pass keeps walking past its first hit and records every hit on the way,
+ * like {@link PathfinderParallelSearch#collectHits(int)}. Collected hits stay on the fine lattice.
+ */
+public final class PathfinderAdaptiveSearch {
+    private final ForkJoinPool pool;
+    private final int startX;
+    private final int startZ;
+    private final int coarseStride;
+    private final int fineStride;
+    private final int maxRadius;
+    private final PathfinderParallelSearch.CellProbe latticeProbe;
+    private final PathfinderParallelSearch.CellProbe exactProbe;
+    private final BooleanSupplier cancelled;
+    @Nullable
+    private PathfinderParallelSearch.RingListener ringListener;
+    private long checkedCount;
+    private int collectReach = -1;
+    private final List<int[]> hits = new ArrayList<>();
+
+    /**
+     * @param startX Exact starting X coordinate; must not contain the target
+     * @param startZ Exact starting Z coordinate
+     * @param coarseStride Stride of the coarse sweep in blocks; must be a multiple of fineStride
+     * @param fineStride Stride of the fine lattice in blocks
+     * @param latticeProbe Evaluated for coarse and fine lattice points
+     * @param exactProbe Evaluated for arbitrary block columns during boundary refinement
+     */
+    public PathfinderAdaptiveSearch(
+            @Nonnull ForkJoinPool pool,
+            int startX,
+            int startZ,
+            int coarseStride,
+            int fineStride,
+            int maxRadius,
+            @Nonnull PathfinderParallelSearch.CellProbe latticeProbe,
+            @Nonnull PathfinderParallelSearch.CellProbe exactProbe,
+            @Nonnull BooleanSupplier cancelled
+    ) {
+        if (coarseStride % fineStride != 0) {
+            throw new IllegalArgumentException("Coarse stride " + coarseStride + " is not a multiple of " + fineStride);
+        }
+        this.pool = pool;
+        this.startX = startX;
+        this.startZ = startZ;
+        this.coarseStride = coarseStride;
+        this.fineStride = fineStride;
+        this.maxRadius = maxRadius;
+        this.latticeProbe = latticeProbe;
+        this.exactProbe = exactProbe;
+        this.cancelled = cancelled;
+    }
+
+    @Nonnull
+    public PathfinderAdaptiveSearch onRing(@Nullable PathfinderParallelSearch.RingListener listener) {
+        this.ringListener = listener;
+        return this;
+    }
+
+    /**
+     * Records every fine lattice hit up to {@code reach} blocks farther out than the first one; see
+     * {@link #getHits()}.
+     */
+    @Nonnull
+    public PathfinderAdaptiveSearch collectHits(int reach) {
+        this.collectReach = Math.max(0, reach);
+        return this;
+    }
+
+    /** Coordinates of every hit recorded by a collecting search as [x, z], in no particular order. */
+    @Nonnull
+    public List<int[]> getHits() {
+        return this.hits;
+    }
+
+    /** Total number of samples evaluated by all passes. */
+    public long getCheckedCount() {
+        return this.checkedCount;
+    }
+
+    /**
+     * @return The coordinates of the target column found as [x, z], or null if not found or cancelled
+     */
+    @Nullable
+    public int[] run() {
+        int centerX = Math.floorDiv(this.startX, this.coarseStride) * this.coarseStride;
+        int centerZ = Math.floorDiv(this.startZ, this.coarseStride) * this.coarseStride;
+
+        // 1. Coarse sweep; the coarse center is not the exact start, so it is checked as well
+        boolean collecting = this.collectReach >= 0;
+        PathfinderParallelSearch coarse = new PathfinderParallelSearch(
+                this.pool, centerX, centerZ, this.coarseStride, this.maxRadius, this.latticeProbe, this.cancelled
+        ).onRing(this.ringListener).fromRing(0);
+        int[] coarseHit = coarse.run();
+        this.checkedCount += coarse.getCheckedCount();
+        if (coarseHit == null) {
+            return null;
+        }
+
+        // 2. Fine rings between the last empty coarse ring and the coarse hit
+        int coarseRing = PathfinderRingOrder.ringOf(
+                (coarseHit[0] - centerX) / this.coarseStride, (coarseHit[1] - centerZ) / this.coarseStride
+        );
+        int ratio = this.coarseStride / this.fineStride;
+        int fineRadius = coarseRing * this.coarseStride;
+        if (collecting) {
+            fineRadius = Math.min(this.maxRadius, fineRadius + this.collectReach);
+        }
+        PathfinderParallelSearch fine = new PathfinderParallelSearch(
+                this.pool, centerX, centerZ, this.fineStride, fineRadius, this.latticeProbe, this.cancelled
+        ).fromRing((coarseRing - 1) * ratio + 1);
+        if (collecting) {
+            fine.collectHits((this.collectReach + this.fineStride - 1) / this.fineStride);
+        }
+        int[] fineHit = fine.run();
+        this.checkedCount += fine.getCheckedCount();
+        this.hits.addAll(fine.getHits());
+        if (fineHit == null) {
+            // Only possible when cancelled or when the coarse hit could not be sampled again
+            if (this.cancelled.getAsBoolean()) {
+                return null;
+            }
+            if (collecting) {
+                this.hits.add(coarseHit);
+            }
+            return coarseHit;
+        }
+
+        // 3. Fine lattice around the coarse hit, which may hold a closer point than the re-walk could reach
+        int[] found = this.refineAround(coarseHit, fineHit);
+        if (collecting) {
+            if (found != fineHit) {
+                this.hits.add(found);
+            }
+            return found;
+        }
+
+        // 4. Exact boundary column between the lattice hit and the lattice point before it
+        return this.refineToBoundary(found);
+    }
+
+    /**
+     * Returns the fine lattice point closest to the start that matches, among the fine hit and the points within
+     * one coarse step of the coarse hit. Candidates are probed nearest first, so the first match wins.
+     */
+    @Nonnull
+    private int[] refineAround(@Nonnull int[] coarseHit, @Nonnull int[] fineHit) {
+        long bestDistance = this.distanceSq(fineHit[0], fineHit[1]);
+        int ratio = this.coarseStride / this.fineStride;
+        List<int[]> candidates = new ArrayList<>();
+        for (int dz = -ratio; dz <= ratio; dz++) {
+            for (int dx = -ratio; dx <= ratio; dx++) {
+                int x = coarseHit[0] + dx * this.fineStride;
+                int z = coarseHit[1] + dz * this.fineStride;
+                if (this.distanceSq(x, z) < bestDistance) {
+                    candidates.add(new int[]{x, z});
+                }
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(this.distanceSq(a[0], a[1]), this.distanceSq(b[0], b[1])));
+        for (int[] candidate : candidates) {
+            if (this.cancelled.getAsBoolean()) {
+                break;
+            }
+            this.checkedCount++;
+            if (this.latticeProbe.matches(candidate[0], candidate[1])) {
+                return candidate;
+            }
+        }
+        return fineHit;
+    }
+
+    /**
+     * Finds the fine lattice neighbour of a hit that is nearest the start and does not match, then bisects the
+     * block columns between the two with exact samples. Returns the hit unchanged if every neighbour nearer the
+     * start matches as well.
+     */
+    @Nonnull
+    private int[] refineToBoundary(@Nonnull int[] hit) {
+        long hitDistance = this.distanceSq(hit[0], hit[1]);
+        List<int[]> neighbours = new ArrayList<>();
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (this.distanceSq(hit[0] + dx * this.fineStride, hit[1] + dz * this.fineStride) < hitDistance) {
+                    neighbours.add(new int[]{dx, dz});
+                }
+            }
+        }
+        neighbours.sort((a, b) -> Long.compare(
+                this.distanceSq(hit[0] + a[0] * this.fineStride, hit[1] + a[1] * this.fineStride),
+                this.distanceSq(hit[0] + b[0] * this.fineStride, hit[1] + b[1] * this.fineStride)
+        ));
+        for (int[] direction : neighbours) {
+            if (this.cancelled.getAsBoolean()) {
+                return hit;
+            }
+            this.checkedCount++;
+            if (this.latticeProbe.matches(hit[0] + direction[0] * this.fineStride, hit[1] + direction[1] * this.fineStride)) {
+                continue;
+            }
+            // Invariant: the column inside steps from the hit matches, the one outside steps does not
+            int inside = 0;
+            int outside = this.fineStride;
+            while (outside - inside > 1 && !this.cancelled.getAsBoolean()) {
+                int mid = (inside + outside) >>> 1;
+                this.checkedCount++;
+                if (this.exactProbe.matches(hit[0] + direction[0] * mid, hit[1] + direction[1] * mid)) {
+                    inside = mid;
+                } else {
+                    outside = mid;
+                }
+            }
+            return new int[]{hit[0] + direction[0] * inside, hit[1] + direction[1] * inside};
+        }
+        return hit;
+    }
+
+    private long distanceSq(int x, int z) {
+        long dx = x - this.startX;
+        long dz = z - this.startZ;
+        return dx * dx + dz * dz;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Single background thread for Pathfinder's disk I/O and periodic housekeeping.
+ * Work scheduled here never runs on a world thread or on the search pool.
+ */
+public final class PathfinderBackground {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static ScheduledExecutorService executor;
+
+    private PathfinderBackground() {
+    }
+
+    @Nonnull
+    public static synchronized ScheduledExecutorService executor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Pathfinder-Background");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /** Runs a task every {@code periodMillis}, logging instead of cancelling the schedule when it throws. */
+    public static void scheduleAtFixedRate(@Nonnull String name, @Nonnull Runnable task, long periodMillis) {
+        executor().scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Background task '%s' failed: %s", name, e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops the background thread after letting already submitted tasks finish. */
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+}
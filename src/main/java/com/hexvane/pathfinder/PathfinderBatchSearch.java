@@ -0,0 +1,199 @@
+package com.hexvane.pathfinder;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Parallel ring search for several targets in one sweep.
+ * <p>
+ * Walks the same Euclidean order and bands as {@link PathfinderParallelSearch}, but every cell is sampled once and
+ * its value is compared against all targets still being searched for. Each target keeps the lowest walk index it
+ * was seen at, so every result is the same nearest hit a single-target search would return. A target drops out of
+ * the working set after the band it was found in, and the sweep stops when no targets remain.
+ */
+public final class PathfinderBatchSearch {
+    @FunctionalInterface
+    public interface CellSampler {
+        /** Returns the value at the given world coordinates, or a negative value if it is unknown. Called concurrently. */
+        int sample(int x, int z);
+    }
+
+    private final ForkJoinPool pool;
+    private final int centerX;
+    private final int centerZ;
+    private final int stride;
+    private final int maxRing;
+    private final PathfinderRingOrder order;
+    private final CellSampler sampler;
+    private final BooleanSupplier cancelled;
+    private final LongAdder checked = new LongAdder();
+    /** Target slot per sampled value, or -1; slots of found targets are reset to -1 between bands. */
+    private final int[] slotOf;
+    private final int[][] results;
+    private int remaining;
+    @Nullable
+    private PathfinderParallelSearch.RingListener ringListener;
+
+    /**
+     * Takes the same parameters as {@link PathfinderParallelSearch}, except for the targets and the sampler.
+     *
+     * @param targets Values to search for, e.g. biome IDs; must be non-negative
+     * @param sampler Evaluated once for every ring cell
+     */
+    public PathfinderBatchSearch(
+            @Nonnull ForkJoinPool pool,
+            int centerX,
+            int centerZ,
+            int stride,
+            int maxRadius,
+            @Nonnull int[] targets,
+            @Nonnull CellSampler sampler,
+            @Nonnull BooleanSupplier cancelled
+    ) {
+        this.pool = pool;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.stride = stride;
+        this.maxRing = maxRadius / stride;
+        this.order = PathfinderRingOrder.forRings(this.maxRing);
+        this.sampler = sampler;
+        this.cancelled = cancelled;
+
+        int maxTarget = 0;
+        for (int target : targets) {
+            if (target < 0) {
+                throw new IllegalArgumentException("Negative target " + target);
+            }
+            maxTarget = Math.max(maxTarget, target);
+        }
+        this.slotOf = new int[maxTarget + 1];
+        Arrays.fill(this.slotOf, -1);
+        for (int slot = 0; slot < targets.length; slot++) {
+            if (this.slotOf[targets[slot]] < 0) {
+                this.slotOf[targets[slot]] = slot;
+                this.remaining++;
+            }
+        }
+        this.results = new int[targets.length][];
+    }
+
+    @Nonnull
+    public PathfinderBatchSearch onRing(@Nullable PathfinderParallelSearch.RingListener listener) {
+        this.ringListener = listener;
+        return this;
+    }
+
+    /** Total number of cells sampled so far. */
+    public long getCheckedCount() {
+        return this.checked.sum();
+    }
+
+    /** Number of targets that have not been found yet. */
+    public int getRemaining() {
+        return this.remaining;
+    }
+
+    /**
+     * Runs the sweep over rings 1 to maxRadius / stride. The center cell itself is not checked.
+     *
+     * @return The nearest hit of every target as [x, z], in the order the targets were given, with null for targets
+     * that were not found. Duplicate targets only receive a result at their first position.
+     * Targets found before the search was cancelled keep their results.
+     */
+    @Nonnull
+    public int[][] run() {
+        int minBandCells = this.pool.getParallelism() * PathfinderParallelSearch.SECTOR_CELLS * 2;
+        int ring = 1;
+        while (ring <= this.maxRing && this.remaining > 0) {
+            if (this.cancelled.getAsBoolean()) {
+                break;
+            }
+
+            int lastRing = ring;
+            while (this.order.cellsWithin(lastRing) - this.order.ringStart(ring) < minBandCells && lastRing < this.maxRing) {
+                lastRing++;
+            }
+
+            AtomicIntegerArray best = new AtomicIntegerArray(this.results.length);
+            for (int slot = 0; slot < this.results.length; slot++) {
+                best.set(slot, Integer.MAX_VALUE);
+            }
+            invoke(new SectorTask(best, this.order.ringStart(ring), this.order.cellsWithin(lastRing)));
+            if (this.cancelled.getAsBoolean()) {
+                break;
+            }
+
+            // Drop targets found in this band from the working set
+            for (int value = 0; value < this.slotOf.length; value++) {
+                int slot = this.slotOf[value];
+                if (slot >= 0 && best.get(slot) != Integer.MAX_VALUE) {
+                    int cell = this.order.cell(best.get(slot));
+                    this.results[slot] = new int[]{
+                            this.centerX + PathfinderRingOrder.offsetX(cell) * this.stride,
+                            this.centerZ + PathfinderRingOrder.offsetZ(cell) * this.stride
+                    };
+                    this.slotOf[value] = -1;
+                    this.remaining--;
+                }
+            }
+            if (this.ringListener != null) {
+                this.ringListener.onRing(lastRing * this.stride, this.checked.sum());
+            }
+            ring = lastRing + 1;
+        }
+        return this.results;
+    }
+
+    private void invoke(@Nonnull ForkJoinTask<?> task) {
+        if (ForkJoinTask.getPool() == this.pool) {
+            task.invoke();
+        } else {
+            this.pool.invoke(task);
+        }
+    }
+
+    /** Samples the cells with walk index [from, to), splitting into sectors of at most SECTOR_CELLS cells. */
+    private final class SectorTask extends RecursiveAction {
+        private final AtomicIntegerArray best;
+        private final int from;
+        private final int to;
+
+        SectorTask(@Nonnull AtomicIntegerArray best, int from, int to) {
+            this.best = best;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > PathfinderParallelSearch.SECTOR_CELLS) {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new SectorTask(this.best, this.from, mid), new SectorTask(this.best, mid, this.to));
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+
+            for (int index = this.from; index < this.to; index++) {
+                int cell = order.cell(index);
+                int value = sampler.sample(
+                        centerX + PathfinderRingOrder.offsetX(cell) * stride,
+                        centerZ + PathfinderRingOrder.offsetZ(cell) * stride
+                );
+                int slot = value >= 0 && value < slotOf.length ? slotOf[value] : -1;
+                if (slot >= 0) {
+                    this.best.accumulateAndGet(slot, index, Math::min);
+                }
+            }
+            checked.add(this.to - this.from);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+
+/**
+ * Bounded, thread-safe cache of sampled biome IDs shared by all searches.
+ * <p>
+ * Samples live on an absolute lattice of {@link #CELL_SIZE}-block cells. Cells are grouped into square tiles of
+ * {@link #TILE_SIZE} x {@link #TILE_SIZE} cells stored as a primitive array, and tiles are grouped into one layer
+ * per (world generator, seed). When the number of tiles exceeds the limit, the least recently used quarter is
+ * evicted.
+ * <p>
+ * Concurrent writers of the same cell always store the same value, so tile arrays are written without locking;
+ * a reader that races a writer simply sees a miss and samples the cell again.
+ */
+public final class PathfinderBiomeCache {
+    /** Size of a lattice cell in blocks. */
+    public static final int CELL_SIZE = 16;
+    public static final int CELL_SHIFT = 4;
+    /** Size of a tile in cells. */
+    public static final int TILE_SIZE = 32;
+    public static final int TILE_SHIFT = 5;
+    /** Returned by {@link Layer#get(int, int)} for cells that were not sampled yet. */
+    public static final int MISSING = -1;
+    /** About 8 MB of tiles. */
+    public static final int DEFAULT_MAX_TILES = 4096;
+
+    private static final PathfinderBiomeCache SHARED = new PathfinderBiomeCache(DEFAULT_MAX_TILES);
+
+    private final Map<LayerKey, Layer> layers = new ConcurrentHashMap<>();
+    private final AtomicInteger tileCount = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile int maxTiles;
+
+    public PathfinderBiomeCache(int maxTiles) {
+        this.maxTiles = Math.max(1, maxTiles);
+    }
+
+    /** The cache shared by every search and discovery on the server. */
+    @Nonnull
+    public static PathfinderBiomeCache shared() {
+        return SHARED;
+    }
+
+    public void setMaxTiles(int maxTiles) {
+        this.maxTiles = Math.max(1, maxTiles);
+        this.evictIfNeeded();
+    }
+
+    /**
+     * Returns the layer holding the samples of a world generator for a seed.
+     * Resolve the layer once per search rather than once per sample.
+     *
+     * @param source The world generator the samples come from; compared by identity
+     */
+    @Nonnull
+    public Layer layer(@Nonnull Object source, int seed) {
+        this.clock.incrementAndGet();
+        return this.layers.computeIfAbsent(new LayerKey(source, seed), key -> new Layer());
+    }
+
+    /** Drops every layer of a world generator, e.g. when its world is removed. */
+    public void invalidate(@Nonnull Object source) {
+        this.layers.entrySet().removeIf(entry -> {
+            if (entry.getKey().source() != source) {
+                return false;
+            }
+            this.tileCount.addAndGet(-entry.getValue().tiles.size());
+            return true;
+        });
+    }
+
+    public void clear() {
+        this.layers.clear();
+        this.tileCount.set(0);
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /** Fraction of lookups answered from the cache, between 0 and 1. */
+    public double getHitRate() {
+        long hitCount = this.hits.sum();
+        long total = hitCount + this.misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public int getTileCount() {
+        return this.tileCount.get();
+    }
+
+    public int getMaxTiles() {
+        return this.maxTiles;
+    }
+
+    static long tileKey(int tileX, int tileZ) {
+        return ((long) tileX << 32) | (tileZ & 0xFFFFFFFFL);
+    }
+
+    private void evictIfNeeded() {
+        if (this.tileCount.get() <= this.maxTiles || !this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Tile> all = new ArrayList<>(this.tileCount.get());
+            for (Layer layer : this.layers.values()) {
+                all.addAll(layer.tiles.values());
+            }
+            if (all.size() <= this.maxTiles) {
+                return;
+            }
+            all.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+            int target = this.maxTiles - this.maxTiles / 4;
+            int toEvict = all.size() - target;
+            for (int i = 0; i < toEvict; i++) {
+                Tile tile = all.get(i);
+                if (tile.layer.tiles.remove(tile.key, tile)) {
+                    this.tileCount.decrementAndGet();
+                    this.evictions.increment();
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    private record LayerKey(Object source, int seed) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LayerKey other && other.source == this.source && other.seed == this.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.source) * 31 + this.seed;
+        }
+    }
+
+    /** Cached samples of one world generator and seed, addressed by absolute cell coordinates. */
+    public final class Layer {
+        private final Map<Long, Tile> tiles = new ConcurrentHashMap<>();
+
+        private Layer() {
+        }
+
+        /** Returns the cached biome ID of a cell, or {@link #MISSING}. */
+        public int get(int cellX, int cellZ) {
+            Tile tile = this.tiles.get(tileKey(cellX >> TILE_SHIFT, cellZ >> TILE_SHIFT));
+            if (tile == null) {
+                misses.increment();
+                return MISSING;
+            }
+            int stored = tile.ids[Tile.index(cellX, cellZ)];
+            if (stored == 0) {
+                misses.increment();
+                return MISSING;
+            }
+            tile.touch(clock.get());
+            hits.increment();
+            return stored - 1;
+        }
+
+        /** Stores the biome ID sampled for a cell. */
+        public void put(int cellX, int cellZ, int biomeId) {
+            long key = tileKey(cellX >> TILE_SHIFT, cellZ >> TILE_SHIFT);
+            Tile tile = this.tiles.get(key);
+            if (tile == null) {
+                tile = this.tiles.computeIfAbsent(key, k -> {
+                    tileCount.incrementAndGet();
+                    return new Tile(this, k);
+                });
+                evictIfNeeded();
+            }
+            tile.ids[Tile.index(cellX, cellZ)] = (short) (biomeId + 1);
+            tile.touch(clock.get());
+        }
+    }
+
+    private static final class Tile {
+        private final Layer layer;
+        private final Long key;
+        /** Biome ID + 1 per cell, 0 for cells that were not sampled. */
+        private final short[] ids = new short[TILE_SIZE * TILE_SIZE];
+        private volatile long lastUsed;
+
+        Tile(@Nonnull Layer layer, @Nonnull Long key) {
+            this.layer = layer;
+            this.key = key;
+        }
+
+        static int index(int cellX, int cellZ) {
+            return ((cellZ & (TILE_SIZE - 1)) << TILE_SHIFT) | (cellX & (TILE_SIZE - 1));
+        }
+
+        void touch(long now) {
+            if (this.lastUsed < now) {
+                this.lastUsed = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.worldgen.biome.Biome;
+import com.hypixel.hytale.server.worldgen.chunk.ChunkGenerator;
+import com.hypixel.hytale.server.worldgen.zone.Zone;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Biomes a world generator can produce, read once from its zones.
+ * <p>
+ * Maps every {@link Biome} instance of the generator to its interned {@link PathfinderBiomeIds} ID by identity,
+ * so sampling a biome costs an identity-hash lookup instead of hashing and comparing its name, and lets searches
+ * resolve a target name to an ID once before sampling. Biomes the generator returns that are not part of the
+ * catalog still resolve through their name. Also records which biomes each zone can produce, so searches can
+ * skip zones that cannot contain their target. Immutable once built; catalogs are shared per generator instance,
+ * and {@link #forWorld} keeps the catalog of each world until the world is removed or its generator is replaced,
+ * so the list command, the biome search page and discovery never read the zones again.
+ */
+public final class PathfinderBiomeCatalog {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final PathfinderBiomeCatalog EMPTY = new PathfinderBiomeCatalog(
+            new IdentityHashMap<>(), new HashMap<>(), new IdentityHashMap<>()
+    );
+    private static final Map<ChunkGenerator, PathfinderBiomeCatalog> CATALOGS = Collections.synchronizedMap(new WeakHashMap<>());
+    /** World name to the catalog of the generator the world had when it was cached. */
+    private static final Map<String, WorldCatalog> WORLDS = new ConcurrentHashMap<>();
+    /** Case-insensitive, with case-sensitive ties so names differing only in case are both kept. */
+    private static final Comparator<String> NAME_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final IdentityHashMap<Biome, Integer> idsByBiome;
+    private final Map<String, Integer> idsByName;
+    /** IDs of the biomes each zone can produce. */
+    private final IdentityHashMap<Zone, BitSet> biomesByZone;
+    private final SortedSet<String> biomeNames;
+    /** Built on first use, since only the biome search page needs it. */
+    private volatile PathfinderBiomeNameIndex nameIndex;
+
+    private PathfinderBiomeCatalog(
+            @Nonnull IdentityHashMap<Biome, Integer> idsByBiome,
+            @Nonnull Map<String, Integer> idsByName,
+            @Nonnull IdentityHashMap<Zone, BitSet> biomesByZone
+    ) {
+        this.idsByBiome = idsByBiome;
+        this.idsByName = idsByName;
+        this.biomesByZone = biomesByZone;
+        TreeSet<String> names = new TreeSet<>(NAME_ORDER);
+        names.addAll(idsByName.keySet());
+        this.biomeNames = Collections.unmodifiableSortedSet(names);
+    }
+
+    /** Catalog of a world together with the generator it was read from. */
+    private static final class WorldCatalog {
+        final Object generator;
+        final PathfinderBiomeCatalog catalog;
+
+        WorldCatalog(@Nonnull Object generator, @Nonnull PathfinderBiomeCatalog catalog) {
+            this.generator = generator;
+            this.catalog = catalog;
+        }
+    }
+
+    /**
+     * Returns the catalog of a world's generator, computing it once per world and generator.
+     *
+     * @return The catalog, or null if there is no {@link PathfinderBiomeSampler} for the world generator
+     */
+    @Nullable
+    public static PathfinderBiomeCatalog forWorld(@Nonnull World world) {
+        Object generator = world.getChunkStore().getGenerator();
+        WorldCatalog cached = WORLDS.get(world.getName());
+        if (cached != null && cached.generator == generator) {
+            return cached.catalog;
+        }
+        PathfinderBiomeSampler sampler = PathfinderBiomeSamplers.forWorld(world);
+        if (sampler == null) {
+            return null;
+        }
+        // Empty catalogs are cached too, so worlds whose generator lists no biomes are not read again on every call
+        PathfinderBiomeCatalog catalog = sampler.getCatalog();
+        WORLDS.put(world.getName(), new WorldCatalog(generator, catalog));
+        LOGGER.atInfo().log("Cached biome catalog for world %s: %d biomes", world.getName(), catalog.size());
+        return catalog;
+    }
+
+    /** Returns the catalog of a generator, reading its zones on first use. */
+    @Nonnull
+    public static PathfinderBiomeCatalog forGenerator(@Nonnull ChunkGenerator generator) {
+        PathfinderBiomeCatalog catalog = CATALOGS.get(generator);
+        if (catalog == null) {
+            catalog = build(generator);
+            if (catalog != EMPTY) {
+                CATALOGS.put(generator, catalog);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Creates a catalog from biome names alone, for samplers without zones.
+     * {@link #canContainAny} and {@link #isZoneRestricted} never rule anything out for such a catalog.
+     */
+    @Nonnull
+    public static PathfinderBiomeCatalog of(@Nonnull Collection<String> biomeNames) {
+        Map<String, Integer> idsByName = new HashMap<>();
+        for (String name : biomeNames) {
+            idsByName.put(name, PathfinderBiomeIds.intern(name));
+        }
+        return new PathfinderBiomeCatalog(new IdentityHashMap<>(), idsByName, new IdentityHashMap<>());
+    }
+
+    /** Drops the catalog of a generator, e.g. when its world is removed. */
+    public static void invalidate(@Nonnull Object generator) {
+        CATALOGS.remove(generator);
+    }
+
+    /** Drops the cached catalog of a world, e.g. when it is removed. */
+    public static void invalidateWorld(@Nonnull String worldName) {
+        WORLDS.remove(worldName);
+    }
+
+    @Nonnull
+    private static PathfinderBiomeCatalog build(@Nonnull ChunkGenerator generator) {
+        IdentityHashMap<Biome, Integer> idsByBiome = new IdentityHashMap<>();
+        Map<String, Integer> idsByName = new HashMap<>();
+        IdentityHashMap<Zone, BitSet> biomesByZone = new IdentityHashMap<>();
+        try {
+            for (Zone zone : generator.getZonePatternProvider().getZones()) {
+                BitSet zoneBiomes = new BitSet();
+                for (Biome biome : zone.biomePatternGenerator().getBiomes()) {
+                    int id = PathfinderBiomeIds.intern(biome.getName());
+                    idsByBiome.put(biome, id);
+                    idsByName.put(biome.getName(), id);
+                    zoneBiomes.set(id);
+                }
+                biomesByZone.put(zone, zoneBiomes);
+            }
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Error reading biomes from zone pattern provider: %s", e.getMessage());
+            return EMPTY;
+        }
+        return new PathfinderBiomeCatalog(idsByBiome, idsByName, biomesByZone);
+    }
+
+    /** Returns the ID of a sampled biome, by identity for catalog biomes and by name otherwise. */
+    public int idOf(@Nonnull Biome biome) {
+        Integer id = this.idsByBiome.get(biome);
+        return id != null ? id : PathfinderBiomeIds.intern(biome.getName());
+    }
+
+    /**
+     * Resolves a biome name to its ID.
+     *
+     * @return The ID, or {@link PathfinderBiomeIds#UNKNOWN} if the generator has no biome with that name
+     */
+    public int find(@Nonnull String biomeName) {
+        Integer id = this.idsByName.get(biomeName);
+        return id != null ? id : PathfinderBiomeIds.UNKNOWN;
+    }
+
+    /** Names of all biomes in the catalog, sorted alphabetically ignoring case. Immutable and shared. */
+    @Nonnull
+    public SortedSet<String> getBiomeNames() {
+        return this.biomeNames;
+    }
+
+    /** Case-insensitive substring index over {@link #getBiomeNames()}, built once per catalog. */
+    @Nonnull
+    public PathfinderBiomeNameIndex getNameIndex() {
+        PathfinderBiomeNameIndex index = this.nameIndex;
+        if (index == null) {
+            index = PathfinderBiomeNameIndex.of(this.biomeNames);
+            this.nameIndex = index;
+        }
+        return index;
+    }
+
+    /** Whether the zones could be read; an empty catalog cannot rule out any biome name. */
+    public boolean isEmpty() {
+        return this.idsByName.isEmpty();
+    }
+
+    /** Number of distinct biome names in the catalog. */
+    public int size() {
+        return this.idsByName.size();
+    }
+
+    /**
+     * Whether a zone can produce any of the given biomes. Zones that are not part of the catalog can produce anything.
+     *
+     * @param biomeIds Set of biome IDs
+     */
+    public boolean canContainAny(@Nonnull Zone zone, @Nonnull BitSet biomeIds) {
+        BitSet zoneBiomes = this.biomesByZone.get(zone);
+        return zoneBiomes == null || zoneBiomes.intersects(biomeIds);
+    }
+
+    /** Whether at least one zone cannot produce any of the given biomes, i.e. zone pruning can skip something. */
+    public boolean isZoneRestricted(@Nonnull BitSet biomeIds) {
+        for (BitSet zoneBiomes : this.biomesByZone.values()) {
+            if (!zoneBiomes.intersects(biomeIds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,239 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import javax.annotation.Nonnull;
+
+/**
+ * Parallel biome discovery by sampling square rings around a center point, nearest ring first.
+ * <p>
+ * Ring {@code k} holds the lattice cells at Chebyshev distance {@code k}; its four edges are sampled with one bulk
+ * {@link PathfinderSearchUtil.GridSampler} call per strip of up to {@value #STRIP_CELLS} cells, and the strips of a
+ * band of rings run on fork-join workers. After every band the discovery stops once no new biome turned up for
+ * {@link #stopAfterStableRings the configured number of rings} or the expected number of biomes was found.
+ * Without an early stop it covers the same square as sampling the whole grid at once. Square rings suit the
+ * stable-ring stop: every ring is a closed loop around everything sampled before it, so each completed band grows
+ * the covered square evenly in all directions, just as the Euclidean search rings do for a disc.
+ * <p>
+ * A strip whose bulk call fails is sampled again point by point; points that still fail are counted and skipped,
+ * and the biomes of all other points are kept.
+ */
+public final class PathfinderBiomeDiscovery {
+    /** Maximum number of cells sampled by one fork-join leaf task. */
+    static final int STRIP_CELLS = 64;
+
+    private final ForkJoinPool pool;
+    private final PathfinderSearchUtil.GridSampler sampler;
+    private final int centerX;
+    private final int centerZ;
+    private final int stride;
+    private final int maxRing;
+    private int stableRings = Integer.MAX_VALUE;
+    private int expectedCount;
+    private long checkedCount;
+    private long failedCount;
+    private int lastRing;
+
+    /**
+     * @param pool The pool to run strip tasks on
+     * @param sampler Fills grids of interned biome IDs; called concurrently
+     * @param centerX Center X coordinate; ring cells are offset from it by multiples of the stride
+     * @param centerZ Center Z coordinate
+     * @param stride Distance in blocks between two lattice cells and between two rings
+     * @param maxRadius Maximum distance in blocks along either axis
+     */
+    public PathfinderBiomeDiscovery(
+            @Nonnull ForkJoinPool pool,
+            @Nonnull PathfinderSearchUtil.GridSampler sampler,
+            int centerX,
+            int centerZ,
+            int stride,
+            int maxRadius
+    ) {
+        this.pool = pool;
+        this.sampler = sampler;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.stride = stride;
+        this.maxRing = Math.max(0, maxRadius / stride);
+    }
+
+    /** Stops once this many consecutive rings found no new biome. */
+    @Nonnull
+    public PathfinderBiomeDiscovery stopAfterStableRings(int rings) {
+        this.stableRings = Math.max(1, rings);
+        return this;
+    }
+
+    /** Stops once this many distinct biomes were found, e.g. the size of the generator's catalog; 0 if unknown. */
+    @Nonnull
+    public PathfinderBiomeDiscovery expecting(int count) {
+        this.expectedCount = Math.max(0, count);
+        return this;
+    }
+
+    /** Number of lattice cells sampled by {@link #run()}. */
+    public long getCheckedCount() {
+        return this.checkedCount;
+    }
+
+    /** Number of lattice cells the sampler failed on during {@link #run()}. */
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /** Outermost ring sampled by {@link #run()}. */
+    public int getLastRing() {
+        return this.lastRing;
+    }
+
+    /**
+     * Samples rings outwards until a stop condition is met or the max radius is reached.
+     *
+     * @return Names of all biomes found at the points that could be sampled
+     */
+    @Nonnull
+    public Set<String> run() {
+        BitSet found = new BitSet();
+        int lastGrowth = 0;
+        int minBandCells = this.pool.getParallelism() * STRIP_CELLS * 2;
+        int ring = 0;
+        while (ring <= this.maxRing) {
+            // Group small inner rings so every band has enough strips to keep all workers busy, but never sample
+            // past the ring at which the discovery would stop if nothing new turns up
+            int last = ring;
+            long cells = cellsIn(ring);
+            while (cells < minBandCells && last < this.maxRing && (long) last - lastGrowth < this.stableRings) {
+                last++;
+                cells += cellsIn(last);
+            }
+
+            List<Strip> strips = new ArrayList<>();
+            for (int r = ring; r <= last; r++) {
+                this.addStrips(r, strips);
+            }
+            this.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(strips);
+                }
+            });
+            this.checkedCount += cells;
+            this.lastRing = last;
+
+            // Strips are in ring order, so growth is attributed to the nearest ring that produced a new biome
+            for (Strip strip : strips) {
+                this.failedCount += strip.failures;
+                for (int biomeId : strip.biomeIds) {
+                    if (biomeId >= 0 && !found.get(biomeId)) {
+                        found.set(biomeId);
+                        lastGrowth = Math.max(lastGrowth, strip.ring);
+                    }
+                }
+            }
+            if (this.expectedCount > 0 && found.cardinality() >= this.expectedCount) {
+                break;
+            }
+            if ((long) last - lastGrowth >= this.stableRings) {
+                break;
+            }
+            ring = last + 1;
+        }
+
+        Set<String> biomes = new HashSet<>();
+        for (int biomeId = found.nextSetBit(0); biomeId >= 0; biomeId = found.nextSetBit(biomeId + 1)) {
+            String biomeName = PathfinderBiomeIds.nameOf(biomeId);
+            if (biomeName != null) {
+                biomes.add(biomeName);
+            }
+        }
+        return biomes;
+    }
+
+    private static long cellsIn(int ring) {
+        return ring == 0 ? 1 : 8L * ring;
+    }
+
+    /** Adds the strips covering the edges of a ring: full top and bottom rows, then the columns between them. */
+    private void addStrips(int ring, @Nonnull List<Strip> strips) {
+        if (ring == 0) {
+            strips.add(new Strip(0, 0, 0, 1, 1));
+            return;
+        }
+        this.addLine(ring, -ring, -ring, 2 * ring + 1, true, strips);
+        this.addLine(ring, -ring, ring, 2 * ring + 1, true, strips);
+        this.addLine(ring, -ring, -ring + 1, 2 * ring - 1, false, strips);
+        this.addLine(ring, ring, -ring + 1, 2 * ring - 1, false, strips);
+    }
+
+    private void addLine(int ring, int dx, int dz, int length, boolean horizontal, @Nonnull List<Strip> strips) {
+        for (int offset = 0; offset < length; offset += STRIP_CELLS) {
+            int cells = Math.min(STRIP_CELLS, length - offset);
+            if (horizontal) {
+                strips.add(new Strip(ring, dx + offset, dz, cells, 1));
+            } else {
+                strips.add(new Strip(ring, dx, dz + offset, 1, cells));
+            }
+        }
+    }
+
+    private void invoke(@Nonnull ForkJoinTask<?> task) {
+        if (ForkJoinTask.getPool() == this.pool) {
+            task.invoke();
+        } else {
+            this.pool.invoke(task);
+        }
+    }
+
+    /** A row or column of consecutive ring cells sampled with one bulk call. */
+    private final class Strip extends RecursiveAction {
+        final int ring;
+        private final int dx;
+        private final int dz;
+        private final int width;
+        private final int height;
+        /** Sampled IDs, -1 where the sampler failed; set once the strip ran. */
+        int[] biomeIds;
+        int failures;
+
+        Strip(int ring, int dx, int dz, int width, int height) {
+            this.ring = ring;
+            this.dx = dx;
+            this.dz = dz;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        protected void compute() {
+            int[] ids = new int[this.width * this.height];
+            PathfinderBiomeDiscovery discovery = PathfinderBiomeDiscovery.this;
+            int x0 = discovery.centerX + this.dx * discovery.stride;
+            int z0 = discovery.centerZ + this.dz * discovery.stride;
+            try {
+                discovery.sampler.sampleGrid(x0, z0, discovery.stride, this.width, this.height, ids);
+            } catch (RuntimeException e) {
+                // Retry point by point so a failing column only loses itself
+                int[] one = new int[1];
+                for (int i = 0; i < ids.length; i++) {
+                    int x = x0 + (i % this.width) * discovery.stride;
+                    int z = z0 + (i / this.width) * discovery.stride;
+                    try {
+                        discovery.sampler.sampleGrid(x, z, discovery.stride, 1, 1, one);
+                        ids[i] = one[0];
+                    } catch (RuntimeException pointFailure) {
+                        ids[i] = -1;
+                        this.failures++;
+                    }
+                }
+            }
+            this.biomeIds = ids;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hexvane.pathfinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Interns biome names to dense int IDs so caches can store biomes in primitive arrays.
+ * IDs are assigned on first use, are stable for the lifetime of the server and are never reused.
+ */
+public final class PathfinderBiomeIds {
+    /** Returned by lookups when no ID is known. */
+    public static final int UNKNOWN = -1;
+    /** Largest ID that can be assigned; IDs must fit in a short for the cache tiles. */
+    public static final int MAX_ID = Short.MAX_VALUE - 1;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int nextId = 0;
+
+    private PathfinderBiomeIds() {
+    }
+
+    /** Returns the ID of a biome name, assigning a new one if the name has not been seen before. */
+    public static int intern(@Nonnull String biomeName) {
+        Integer id = IDS.get(biomeName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (PathfinderBiomeIds.class) {
+            id = IDS.get(biomeName);
+            if (id != null) {
+                return id;
+            }
+            if (nextId > MAX_ID) {
+                throw new IllegalStateException("Too many distinct biome names");
+            }
+            int newId = nextId++;
+            String[] current = names;
+            if (newId >= current.length) {
+                String[] grown = new String[current.length * 2];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            current[newId] = biomeName;
+            names = current;
+            IDS.put(biomeName, newId);
+            return newId;
+        }
+    }
+
+    /** Returns the ID of a biome name, or {@link #UNKNOWN} if it was never interned. */
+    public static int find(@Nonnull String biomeName) {
+        Integer id = IDS.get(biomeName);
+        return id == null ? UNKNOWN : id;
+    }
+
+    @Nullable
+    public static String nameOf(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /** Number of IDs assigned so far; every ID is below this value. */
+    public static int size() {
+        synchronized (PathfinderBiomeIds.class) {
+            return nextId;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Persistent index of sampled biomes for one world and seed.
+ * <p>
+ * The biome layout is a pure function of the seed, so samples stay valid across restarts. The index stores them
+ * on the same {@link PathfinderBiomeCache#CELL_SIZE}-block lattice as the cache, in memory-mapped region files of
+ * {@link #REGION_SIZE} x {@link #REGION_SIZE} cells. Each cell is a short holding a palette index + 1, or 0 if
+ * the cell was never sampled; the palette maps those indexes to biome names and is shared by all regions.
+ * <p>
+ * Reads go straight to the mapped buffers and may run on any thread. Writes are batched per region in primitive
+ * arrays, at most {@value #MAX_PENDING_WRITES} at a time; beyond that they are dropped, which only means those
+ * cells are sampled again later. The {@link PathfinderBackground} thread applies the batches. It appends new palette
+ * entries and forces the palette to disk before it writes any cell that refers to them, so after a crash every
+ * stored cell still resolves to the right biome. At most {@value #MAX_REGIONS} regions are kept mapped; beyond that
+ * the least recently used quarter is dropped and mapped again on its next use.
+ * <p>
+ * Layout of {@code <plugin data>/biome-index/<world>/<seed>/}:
+ * <ul>
+ *   <li>{@code index.properties}: format version, seed and generator type; a mismatch discards the index</li>
+ *   <li>{@code palette.txt}: one biome name per line, line number = palette index</li>
+ *   <li>{@code r.<x>.<z>.pfbi}: region files: a {@value #HEADER_BYTES}-byte header followed by the cells</li>
+ * </ul>
+ */
+public final class PathfinderBiomeIndex {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    public static final int VERSION = 1;
+    /** "PFBI" */
+    private static final int MAGIC = 0x50464249;
+    /** Size of a region in cells (4096 blocks). */
+    public static final int REGION_SIZE = 256;
+    public static final int REGION_SHIFT = 8;
+    static final int HEADER_BYTES = 32;
+    private static final int REGION_BYTES = HEADER_BYTES + REGION_SIZE * REGION_SIZE * Short.BYTES;
+    private static final long FLUSH_PERIOD_MILLIS = 1000;
+    /** About 2 MB of queued writes. */
+    static final int MAX_PENDING_WRITES = 1 << 18;
+    /** About 32 MB of mapped regions, covering a 65536-block square. */
+    static final int MAX_REGIONS = 256;
+
+    private static final Map<String, PathfinderBiomeIndex> OPEN = new ConcurrentHashMap<>();
+    private static volatile Path root;
+
+    private final String worldName;
+    private final int seed;
+    private final Path directory;
+    private final Map<Long, Region> regions = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Map<Long, WriteBatch> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder droppedWrites = new LongAdder();
+    private final List<String> palette = new ArrayList<>();
+    /** Number of palette entries known to be on disk; cells referring to later entries are not written yet. */
+    private int savedPaletteSize;
+    /** Palette index to biome ID, replaced as a whole whenever the palette grows. */
+    private volatile int[] paletteToBiomeId = new int[0];
+    /** Biome ID to palette index + 1; only used by the writer. */
+    private int[] biomeIdToPalette = new int[0];
+    private volatile boolean closed;
+
+    private PathfinderBiomeIndex(@Nonnull String worldName, int seed, @Nonnull Path directory) {
+        this.worldName = worldName;
+        this.seed = seed;
+        this.directory = directory;
+    }
+
+    /** Enables the index under the given directory and starts the periodic write-behind flush. */
+    public static synchronized void start(@Nonnull Path directory) {
+        if (root != null) {
+            return;
+        }
+        root = directory;
+        PathfinderBackground.scheduleAtFixedRate("biome index flush", () -> {
+            for (PathfinderBiomeIndex index : OPEN.values()) {
+                index.flush();
+            }
+        }, FLUSH_PERIOD_MILLIS);
+    }
+
+    /** Flushes and closes every open index. */
+    public static synchronized void shutdown() {
+        for (PathfinderBiomeIndex index : OPEN.values()) {
+            index.close();
+        }
+        OPEN.clear();
+        root = null;
+    }
+
+    /**
+     * Returns the index of a world, opening it on first use.
+     *
+     * @param generatorType Identifies the world generator; an index written by another generator is discarded
+     * @return The index, or null if the index is disabled or could not be opened
+     */
+    @Nullable
+    public static PathfinderBiomeIndex forWorld(@Nonnull String worldName, int seed, @Nonnull String generatorType) {
+        PathfinderBiomeIndex index = OPEN.get(worldName);
+        if (index != null && index.seed == seed) {
+            return index;
+        }
+        Path base = root;
+        if (base == null) {
+            return null;
+        }
+        synchronized (PathfinderBiomeIndex.class) {
+            index = OPEN.get(worldName);
+            if (index != null && index.seed == seed) {
+                return index;
+            }
+            if (index != null) {
+                // The world was recreated with another seed
+                index.close();
+            }
+            Path directory = base.resolve(sanitize(worldName)).resolve(Integer.toString(seed));
+            try {
+                index = new PathfinderBiomeIndex(worldName, seed, directory);
+                index.open(generatorType);
+                OPEN.put(worldName, index);
+                LOGGER.atInfo().log("Opened biome index for world %s at %s (%d palette entries)",
+                        worldName, directory, index.palette.size());
+                return index;
+            } catch (IOException e) {
+                LOGGER.atWarning().log("Failed to open biome index for world %s: %s", worldName, e.getMessage());
+                OPEN.remove(worldName);
+                return null;
+            }
+        }
+    }
+
+    /** Flushes and closes the index of a world, e.g. when the world is removed. */
+    public static void close(@Nonnull String worldName) {
+        PathfinderBiomeIndex index = OPEN.remove(worldName);
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    /** Turns a world name into a safe directory name. */
+    @Nonnull
+    static String sanitize(@Nonnull String name) {
+        return name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    private void open(@Nonnull String generatorType) throws IOException {
+        Files.createDirectories(this.directory);
+        Path metaFile = this.directory.resolve("index.properties");
+        Properties expected = new Properties();
+        expected.setProperty("version", Integer.toString(VERSION));
+        expected.setProperty("seed", Integer.toString(this.seed));
+        expected.setProperty("cellSize", Integer.toString(PathfinderBiomeCache.CELL_SIZE));
+        expected.setProperty("generator", generatorType);
+
+        Properties actual = new Properties();
+        if (Files.exists(metaFile)) {
+            try (InputStream in = Files.newInputStream(metaFile)) {
+                actual.load(in);
+            }
+        }
+        if (!expected.equals(actual)) {
+            if (!actual.isEmpty()) {
+                LOGGER.atInfo().log("Discarding biome index for world %s: written by %s, expected %s",
+                        this.worldName, actual, expected);
+            }
+            this.deleteContents();
+            try (OutputStream out = Files.newOutputStream(metaFile)) {
+                expected.store(out, "Pathfinder biome index");
+            }
+        }
+
+        Path paletteFile = this.directory.resolve("palette.txt");
+        if (Files.exists(paletteFile)) {
+            for (String name : Files.readAllLines(paletteFile, StandardCharsets.UTF_8)) {
+                if (!name.isEmpty()) {
+                    this.addToPalette(name);
+                }
+            }
+        }
+        this.savedPaletteSize = this.palette.size();
+    }
+
+    private void deleteContents() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private int addToPalette(@Nonnull String name) {
+        int paletteIndex = this.palette.size();
+        this.palette.add(name);
+        int biomeId = PathfinderBiomeIds.intern(name);
+        if (biomeId >= this.biomeIdToPalette.length) {
+            int[] grown = new int[Math.max(biomeId + 1, this.biomeIdToPalette.length * 2)];
+            System.arraycopy(this.biomeIdToPalette, 0, grown, 0, this.biomeIdToPalette.length);
+            this.biomeIdToPalette = grown;
+        }
+        this.biomeIdToPalette[biomeId] = paletteIndex + 1;
+        int[] current = this.paletteToBiomeId;
+        int[] grown = new int[paletteIndex + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[paletteIndex] = biomeId;
+        this.paletteToBiomeId = grown;
+        return paletteIndex;
+    }
+
+    /**
+     * Returns the indexed biome ID of a cell, or {@link PathfinderBiomeCache#MISSING} if the cell was never
+     * sampled. Safe to call from any thread.
+     */
+    public int get(int cellX, int cellZ) {
+        if (this.closed) {
+            return PathfinderBiomeCache.MISSING;
+        }
+        long key = PathfinderBiomeCache.tileKey(cellX >> REGION_SHIFT, cellZ >> REGION_SHIFT);
+        Region region = this.regions.get(key);
+        if (region == null) {
+            region = this.regions.computeIfAbsent(key, k -> this.mapRegion(cellX >> REGION_SHIFT, cellZ >> REGION_SHIFT, false));
+            this.evictIfNeeded();
+        }
+        this.touch(region);
+        if (region.buffer == null) {
+            return PathfinderBiomeCache.MISSING;
+        }
+        int stored = region.buffer.getShort(Region.offset(cellX, cellZ)) & 0xFFFF;
+        int[] biomeIds = this.paletteToBiomeId;
+        if (stored == 0 || stored > biomeIds.length) {
+            return PathfinderBiomeCache.MISSING;
+        }
+        return biomeIds[stored - 1];
+    }
+
+    /**
+     * Queues a sampled cell to be written to disk by the background thread. Dropped if
+     * {@value #MAX_PENDING_WRITES} writes are already waiting.
+     */
+    public void write(int cellX, int cellZ, int biomeId) {
+        if (this.closed || biomeId < 0) {
+            return;
+        }
+        if (this.pendingCount.incrementAndGet() > MAX_PENDING_WRITES) {
+            this.pendingCount.decrementAndGet();
+            this.droppedWrites.increment();
+            return;
+        }
+        this.pending.computeIfAbsent(
+                PathfinderBiomeCache.tileKey(cellX >> REGION_SHIFT, cellZ >> REGION_SHIFT),
+                key -> new WriteBatch()
+        ).add(Region.offset(cellX, cellZ), biomeId);
+    }
+
+    /** Number of writes waiting for the next flush. */
+    public int getPendingWrites() {
+        return this.pendingCount.get();
+    }
+
+    /** Number of writes dropped because too many were waiting. */
+    public long getDroppedWrites() {
+        return this.droppedWrites.sum();
+    }
+
+    public int getOpenRegions() {
+        int count = 0;
+        for (Region region : this.regions.values()) {
+            if (region.buffer != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Applies queued writes and forces them to disk: first the palette entries they need, then the modified
+     * regions. Cells whose palette entry could not be saved are dropped.
+     */
+    synchronized void flush() {
+        if (this.pendingCount.get() == 0) {
+            return;
+        }
+        Map<Long, long[]> batches = new HashMap<>();
+        for (Map.Entry<Long, WriteBatch> entry : this.pending.entrySet()) {
+            long[] writes = entry.getValue().drain();
+            if (writes.length > 0) {
+                this.pendingCount.addAndGet(-writes.length);
+                batches.put(entry.getKey(), writes);
+            }
+        }
+
+        // Resolve every biome to a palette index and make new entries durable before any cell refers to them
+        for (long[] writes : batches.values()) {
+            for (int i = 0; i < writes.length; i++) {
+                int biomeId = WriteBatch.biomeId(writes[i]);
+                if (biomeId >= this.biomeIdToPalette.length || this.biomeIdToPalette[biomeId] == 0) {
+                    String name = PathfinderBiomeIds.nameOf(biomeId);
+                    if (name != null) {
+                        this.addToPalette(name);
+                    }
+                }
+            }
+        }
+        this.savePalette();
+
+        for (Map.Entry<Long, long[]> entry : batches.entrySet()) {
+            long key = entry.getKey();
+            int regionX = (int) (key >> 32);
+            int regionZ = (int) key;
+            Region region = this.regions.compute(key, (k, existing) ->
+                    existing != null && existing.buffer != null ? existing : this.mapRegion(regionX, regionZ, true)
+            );
+            this.touch(region);
+            this.evictIfNeeded();
+            if (region.buffer == null) {
+                continue;
+            }
+            boolean written = false;
+            for (long write : entry.getValue()) {
+                int biomeId = WriteBatch.biomeId(write);
+                int paletteIndex = biomeId < this.biomeIdToPalette.length ? this.biomeIdToPalette[biomeId] - 1 : -1;
+                if (paletteIndex < 0 || paletteIndex >= this.savedPaletteSize) {
+                    continue;
+                }
+                region.buffer.putShort(WriteBatch.offset(write), (short) (paletteIndex + 1));
+                written = true;
+            }
+            if (written) {
+                region.buffer.force();
+            }
+        }
+    }
+
+    private void touch(@Nonnull Region region) {
+        long now = this.clock.get();
+        if (region.lastUsed < now) {
+            region.lastUsed = now;
+        }
+    }
+
+    /**
+     * Drops the least recently used quarter of the regions once more than {@value #MAX_REGIONS} are open. Writes to
+     * a region are forced right after they are applied, so a dropped region holds no unsaved cells; its mapping is
+     * released once the buffer is no longer referenced.
+     */
+    private void evictIfNeeded() {
+        this.clock.incrementAndGet();
+        if (this.regions.size() <= MAX_REGIONS || !this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<Long, Region>> all = new ArrayList<>(this.regions.entrySet());
+            if (all.size() <= MAX_REGIONS) {
+                return;
+            }
+            all.sort((a, b) -> Long.compare(a.getValue().lastUsed, b.getValue().lastUsed));
+            int toEvict = all.size() - (MAX_REGIONS - MAX_REGIONS / 4);
+            for (int i = 0; i < toEvict; i++) {
+                this.regions.remove(all.get(i).getKey(), all.get(i).getValue());
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    /** Appends the palette entries added since the last save and forces them to disk. */
+    private void savePalette() {
+        if (this.savedPaletteSize == this.palette.size()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String name : this.palette.subList(this.savedPaletteSize, this.palette.size())) {
+            lines.append(name).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(this.directory.resolve("palette.txt"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+            this.savedPaletteSize = this.palette.size();
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to append to biome index palette of world %s: %s", this.worldName, e.getMessage());
+        }
+    }
+
+    synchronized void close() {
+        this.flush();
+        this.closed = true;
+        this.regions.clear();
+        this.pending.clear();
+    }
+
+    /** Maps a region file, creating it if requested. Returns a region without buffer if it does not exist. */
+    @Nonnull
+    private Region mapRegion(int regionX, int regionZ, boolean create) {
+        Path file = this.directory.resolve("r." + regionX + "." + regionZ + ".pfbi");
+        boolean exists = Files.exists(file);
+        if (!exists && !create) {
+            return new Region(null);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+            if (exists && !this.isValidHeader(buffer, regionX, regionZ)) {
+                LOGGER.atWarning().log("Ignoring corrupt biome index region %s", file);
+                if (!create) {
+                    return new Region(null);
+                }
+                for (int i = 0; i < REGION_BYTES; i += Long.BYTES) {
+                    buffer.putLong(i, 0L);
+                }
+                exists = false;
+            }
+            if (!exists) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, PathfinderBiomeCache.CELL_SIZE);
+                buffer.putInt(12, REGION_SIZE);
+                buffer.putInt(16, this.seed);
+                buffer.putInt(20, regionX);
+                buffer.putInt(24, regionZ);
+            }
+            return new Region(buffer);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to map biome index region %s: %s", file, e.getMessage());
+            return new Region(null);
+        }
+    }
+
+    private boolean isValidHeader(@Nonnull MappedByteBuffer buffer, int regionX, int regionZ) {
+        return buffer.getInt(0) == MAGIC
+                && buffer.getInt(4) == VERSION
+                && buffer.getInt(8) == PathfinderBiomeCache.CELL_SIZE
+                && buffer.getInt(12) == REGION_SIZE
+                && buffer.getInt(16) == this.seed
+                && buffer.getInt(20) == regionX
+                && buffer.getInt(24) == regionZ;
+    }
+
+    /** Queued writes of one region, each packed as byte offset in the region file and biome ID. */
+    private static final class WriteBatch {
+        private long[] writes = new long[16];
+        private int size;
+
+        static int offset(long write) {
+            return (int) (write >>> 32);
+        }
+
+        static int biomeId(long write) {
+            return (int) write;
+        }
+
+        synchronized void add(int offset, int biomeId) {
+            if (this.size == this.writes.length) {
+                this.writes = Arrays.copyOf(this.writes, this.size * 2);
+            }
+            this.writes[this.size++] = ((long) offset << 32) | (biomeId & 0xFFFFFFFFL);
+        }
+
+        /** Takes all queued writes, oldest first, and shrinks the batch back to its initial capacity. */
+        @Nonnull
+        synchronized long[] drain() {
+            long[] drained = Arrays.copyOf(this.writes, this.size);
+            this.writes = new long[16];
+            this.size = 0;
+            return drained;
+        }
+    }
+
+    private static final class Region {
+        /** The mapped region file, or null if the file does not exist or could not be mapped. */
+        @Nullable
+        final MappedByteBuffer buffer;
+        volatile long lastUsed;
+
+        Region(@Nullable MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        static int offset(int cellX, int cellZ) {
+            return HEADER_BYTES + (((cellZ & (REGION_SIZE - 1)) << REGION_SHIFT) | (cellX & (REGION_SIZE - 1))) * Short.BYTES;
+        }
+    }
+}
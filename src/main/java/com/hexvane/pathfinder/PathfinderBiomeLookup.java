@@ -0,0 +1,207 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Biome lookup for one search or discovery pass. Each lattice point is answered by the first layer that knows it:
+ * the shared {@link PathfinderBiomeCache}, then the world's persistent {@link PathfinderBiomeIndex}, and only then
+ * the world's {@link PathfinderBiomeSampler}. Generator samples are written back to the cache immediately and to the
+ * index asynchronously. Safe to use from several threads at once.
+ */
+public final class PathfinderBiomeLookup {
+    private final PathfinderBiomeSampler sampler;
+    private final PathfinderBiomeCatalog catalog;
+    private final PathfinderBiomeCache.Layer cache;
+    @Nullable
+    private final PathfinderBiomeIndex index;
+    private final LongAdder indexHits = new LongAdder();
+    private final LongAdder generatorCalls = new LongAdder();
+
+    public PathfinderBiomeLookup(
+            @Nonnull PathfinderBiomeSampler sampler,
+            @Nonnull PathfinderBiomeCache.Layer cache,
+            @Nullable PathfinderBiomeIndex index
+    ) {
+        this.sampler = sampler;
+        this.catalog = sampler.getCatalog();
+        this.cache = cache;
+        this.index = index;
+    }
+
+    /**
+     * Creates a lookup for a world using the shared cache and the world's index.
+     *
+     * @return The lookup, or null if there is no {@link PathfinderBiomeSampler} for the world generator
+     */
+    @Nullable
+    public static PathfinderBiomeLookup forWorld(@Nonnull World world) {
+        PathfinderBiomeSampler sampler = PathfinderBiomeSamplers.forWorld(world);
+        if (sampler == null) {
+            return null;
+        }
+        Object source = sampler.getSource();
+        return new PathfinderBiomeLookup(
+                sampler,
+                PathfinderBiomeCache.shared().layer(source, sampler.getSeed()),
+                PathfinderBiomeIndex.forWorld(world.getName(), sampler.getSeed(), source.getClass().getName())
+        );
+    }
+
+    @Nonnull
+    public PathfinderBiomeSampler getSampler() {
+        return this.sampler;
+    }
+
+    @Nonnull
+    public PathfinderBiomeCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    /**
+     * Resolves a target biome name to the ID samples are compared against.
+     *
+     * @return The ID, or {@link PathfinderBiomeIds#UNKNOWN} if the generator's catalog has no such biome
+     */
+    public int resolve(@Nonnull String biomeName) {
+        return this.catalog.isEmpty() ? PathfinderBiomeIds.intern(biomeName) : this.catalog.find(biomeName);
+    }
+
+    /**
+     * Returns the biome ID at a lattice point.
+     *
+     * @param x X coordinate; must be a multiple of {@link PathfinderBiomeCache#CELL_SIZE}
+     * @param z Z coordinate; must be a multiple of {@link PathfinderBiomeCache#CELL_SIZE}
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    public int biomeIdAt(int x, int z) {
+        return this.biomeIdAt(x, z, null);
+    }
+
+    /**
+     * Returns the biome ID at a lattice point, asking the zone filter only when neither the cache nor the index
+     * knows the point, so repeat searches over sampled land make no generator calls at all.
+     *
+     * @param zoneFilter Filter consulted before calling the generator, or null
+     * @return The biome ID, or {@link PathfinderBiomeIds#UNKNOWN} if the zone filter skipped the point
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    public int biomeIdAt(int x, int z, @Nullable PathfinderZoneFilter zoneFilter) {
+        int cellX = x >> PathfinderBiomeCache.CELL_SHIFT;
+        int cellZ = z >> PathfinderBiomeCache.CELL_SHIFT;
+        int biomeId = this.cachedBiomeId(cellX, cellZ);
+        if (biomeId != PathfinderBiomeCache.MISSING) {
+            return biomeId;
+        }
+        if (zoneFilter != null && !zoneFilter.canContain(x, z)) {
+            return PathfinderBiomeIds.UNKNOWN;
+        }
+
+        this.generatorCalls.increment();
+        biomeId = this.sample(x, z);
+        this.store(cellX, cellZ, biomeId);
+        return biomeId;
+    }
+
+    /**
+     * Fills {@code out} with the biome IDs of a rectangular block of lattice points, like
+     * {@link PathfinderBiomeSampler#sampleGrid}. Points missing from the cache and the index are sampled with one
+     * bulk call per run of consecutive misses in a row.
+     *
+     * @param x0 X coordinate of the first point; must be a multiple of {@link PathfinderBiomeCache#CELL_SIZE}
+     * @param z0 Z coordinate of the first point; must be a multiple of {@link PathfinderBiomeCache#CELL_SIZE}
+     * @param stride Distance between points; must be a multiple of {@link PathfinderBiomeCache#CELL_SIZE}
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    public void sampleGrid(int x0, int z0, int stride, int width, int height, @Nonnull int[] out) {
+        int cellStride = stride >> PathfinderBiomeCache.CELL_SHIFT;
+        int[] run = null;
+        for (int row = 0; row < height; row++) {
+            int cellZ = (z0 >> PathfinderBiomeCache.CELL_SHIFT) + row * cellStride;
+            int offset = row * width;
+            int runStart = -1;
+            for (int col = 0; col <= width; col++) {
+                boolean missing = false;
+                if (col < width) {
+                    int cellX = (x0 >> PathfinderBiomeCache.CELL_SHIFT) + col * cellStride;
+                    int biomeId = this.cachedBiomeId(cellX, cellZ);
+                    out[offset + col] = biomeId;
+                    missing = biomeId == PathfinderBiomeCache.MISSING;
+                }
+                if (missing && runStart < 0) {
+                    runStart = col;
+                } else if (!missing && runStart >= 0) {
+                    int length = col - runStart;
+                    if (run == null) {
+                        run = new int[width];
+                    }
+                    this.generatorCalls.add(length);
+                    try {
+                        this.sampler.sampleGrid(x0 + runStart * stride, z0 + row * stride, stride, length, 1, run);
+                    } catch (RuntimeException e) {
+                        PathfinderMetrics.recordGeneratorFailure();
+                        throw e;
+                    }
+                    for (int i = 0; i < length; i++) {
+                        out[offset + runStart + i] = run[i];
+                        this.store((x0 >> PathfinderBiomeCache.CELL_SHIFT) + (runStart + i) * cellStride, cellZ, run[i]);
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+    }
+
+    /** Returns the biome ID of a cell from the cache or the index, or {@link PathfinderBiomeCache#MISSING}. */
+    private int cachedBiomeId(int cellX, int cellZ) {
+        int biomeId = this.cache.get(cellX, cellZ);
+        if (biomeId != PathfinderBiomeCache.MISSING || this.index == null) {
+            return biomeId;
+        }
+        biomeId = this.index.get(cellX, cellZ);
+        if (biomeId != PathfinderBiomeCache.MISSING) {
+            this.indexHits.increment();
+            this.cache.put(cellX, cellZ, biomeId);
+        }
+        return biomeId;
+    }
+
+    private void store(int cellX, int cellZ, int biomeId) {
+        this.cache.put(cellX, cellZ, biomeId);
+        if (this.index != null) {
+            this.index.write(cellX, cellZ, biomeId);
+        }
+    }
+
+    /**
+     * Returns the biome ID at an arbitrary block column, bypassing the cache and the index.
+     * Used for the exact position a search starts from.
+     *
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    public int exactBiomeIdAt(int x, int z) {
+        this.generatorCalls.increment();
+        return this.sample(x, z);
+    }
+
+    private int sample(int x, int z) {
+        try {
+            return this.sampler.biomeIdAt(x, z);
+        } catch (RuntimeException e) {
+            PathfinderMetrics.recordGeneratorFailure();
+            throw e;
+        }
+    }
+
+    /** Number of lookups answered by the persistent index. */
+    public long getIndexHits() {
+        return this.indexHits.sum();
+    }
+
+    /** Number of lookups that had to call the world generator. */
+    public long getGeneratorCalls() {
+        return this.generatorCalls.sum();
+    }
+}
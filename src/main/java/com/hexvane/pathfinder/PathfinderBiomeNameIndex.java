@@ -0,0 +1,134 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Case-insensitive substring index over biome names, built once per {@link PathfinderBiomeCatalog}.
+ * <p>
+ * Names are sorted case-insensitively and addressed by their position. Each name is lowercased once, and every
+ * three-character sequence (trigram) of the lowercase names maps to the sorted positions of the names containing
+ * it. A query of three or more characters only checks the names listed under its rarest trigram; shorter queries
+ * scan the lowercase names. {@link #refine} narrows a previous result when a query grows, e.g. while typing.
+ * Immutable and safe to share between threads; returned arrays must not be modified.
+ */
+public final class PathfinderBiomeNameIndex {
+    private static final int GRAM = 3;
+    private static final int[] NONE = new int[0];
+
+    private final String[] names;
+    private final String[] lowerNames;
+    private final Map<String, Integer> positions;
+    private final Map<Long, int[]> postings;
+    private final int[] all;
+
+    private PathfinderBiomeNameIndex(@Nonnull String[] names) {
+        this.names = names;
+        this.lowerNames = new String[names.length];
+        this.positions = new HashMap<>(names.length * 2);
+        this.all = new int[names.length];
+        Map<Long, List<Integer>> grams = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            String lower = names[i].toLowerCase(Locale.ROOT);
+            this.lowerNames[i] = lower;
+            this.positions.put(names[i], i);
+            this.all[i] = i;
+            for (int start = 0; start + GRAM <= lower.length(); start++) {
+                List<Integer> list = grams.computeIfAbsent(gram(lower, start), k -> new ArrayList<>());
+                // Positions arrive in ascending order, so a repeated trigram of the same name is the last entry
+                if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                    list.add(i);
+                }
+            }
+        }
+        this.postings = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : grams.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] positions = new int[list.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = list.get(i);
+            }
+            this.postings.put(entry.getKey(), positions);
+        }
+    }
+
+    @Nonnull
+    public static PathfinderBiomeNameIndex of(@Nonnull Collection<String> biomeNames) {
+        String[] names = biomeNames.toArray(new String[0]);
+        Arrays.sort(names, String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()));
+        return new PathfinderBiomeNameIndex(names);
+    }
+
+    private static long gram(@Nonnull String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+
+    /** Number of names in the index. */
+    public int size() {
+        return this.names.length;
+    }
+
+    /** Name at a position, in case-insensitive alphabetical order. */
+    @Nonnull
+    public String getName(int position) {
+        return this.names[position];
+    }
+
+    /** Position of a name, or -1 if it is not in the index. */
+    public int indexOf(@Nonnull String name) {
+        Integer position = this.positions.get(name);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Sorted positions of the names containing a query, ignoring case. An empty query matches every name.
+     */
+    @Nonnull
+    public int[] filter(@Nonnull String query) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        if (lower.isEmpty()) {
+            return this.all;
+        }
+        if (lower.length() < GRAM) {
+            return this.refine(this.all, lower);
+        }
+        int[] candidates = null;
+        for (int start = 0; start + GRAM <= lower.length(); start++) {
+            int[] positions = this.postings.get(gram(lower, start));
+            if (positions == null) {
+                return NONE;
+            }
+            if (candidates == null || positions.length < candidates.length) {
+                candidates = positions;
+            }
+        }
+        return lower.length() == GRAM ? candidates : this.refine(candidates, lower);
+    }
+
+    /**
+     * Narrows an earlier result to the names containing a query, ignoring case. Only valid if the query contains
+     * the query that produced {@code matches}, which is what happens while a player keeps typing.
+     */
+    @Nonnull
+    public int[] refine(@Nonnull int[] matches, @Nonnull String query) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        int[] refined = new int[matches.length];
+        int count = 0;
+        for (int position : matches) {
+            if (this.lowerNames[position].contains(lower)) {
+                refined[count++] = position;
+            }
+        }
+        if (count == matches.length) {
+            return matches;
+        }
+        return count == 0 ? NONE : Arrays.copyOf(refined, count);
+    }
+}
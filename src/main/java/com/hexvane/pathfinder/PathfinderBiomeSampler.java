@@ -0,0 +1,58 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.server.worldgen.zone.ZoneGeneratorResult;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Source of biome samples for searches and discovery; the one seam between the search engine and a world generator.
+ * <p>
+ * Implementations return interned {@link PathfinderBiomeIds} IDs and must be safe to call from several threads at
+ * once. Use {@link PathfinderBiomeSamplers#forWorld} to get the sampler of a world.
+ */
+public interface PathfinderBiomeSampler {
+    /**
+     * Returns the biome ID at a block column.
+     *
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    int biomeIdAt(int x, int z);
+
+    /**
+     * Fills {@code out} with the biome IDs of a rectangular block of lattice points, row by row: the point
+     * (x0 + col * stride, z0 + row * stride) goes to {@code out[row * width + col]}. Implementations should override
+     * this to amortize per-call overhead; the default samples one point at a time.
+     *
+     * @throws RuntimeException if the generator fails to produce a biome
+     */
+    default void sampleGrid(int x0, int z0, int stride, int width, int height, @Nonnull int[] out) {
+        for (int row = 0; row < height; row++) {
+            int z = z0 + row * stride;
+            int offset = row * width;
+            for (int col = 0; col < width; col++) {
+                out[offset + col] = this.biomeIdAt(x0 + col * stride, z);
+            }
+        }
+    }
+
+    /** The biomes this sampler can produce; empty if they are not known up front. */
+    @Nonnull
+    PathfinderBiomeCatalog getCatalog();
+
+    /**
+     * Returns the zone at a block column for zone pruning, see {@link PathfinderZoneFilter}.
+     *
+     * @return The zone, or null if the sampler has no zones
+     */
+    @Nullable
+    default ZoneGeneratorResult zoneAt(int x, int z) {
+        return null;
+    }
+
+    /** The generator samples come from; cache layers and catalogs are kept per source, compared by identity. */
+    @Nonnull
+    Object getSource();
+
+    /** Seed the samples are generated with. */
+    int getSeed();
+}
@@ -0,0 +1,64 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.worldgen.IWorldGen;
+import com.hypixel.hytale.server.worldgen.chunk.ChunkGenerator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Creates the {@link PathfinderBiomeSampler} of a world from its generator.
+ * ChunkGenerator (v1) is supported out of the box; adapters for other {@link IWorldGen} implementations can be
+ * registered with {@link #register(Class, Factory)}.
+ */
+public final class PathfinderBiomeSamplers {
+    private static final Map<Class<?>, Factory<?>> FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        register(ChunkGenerator.class, PathfinderChunkGeneratorSampler::new);
+    }
+
+    private PathfinderBiomeSamplers() {
+    }
+
+    @FunctionalInterface
+    public interface Factory<G extends IWorldGen> {
+        /** Creates a sampler for a generator and world seed. */
+        @Nonnull
+        PathfinderBiomeSampler create(@Nonnull G generator, int seed);
+    }
+
+    /** Registers the sampler factory for a generator type; also used for its subclasses. Replaces any earlier one. */
+    public static <G extends IWorldGen> void register(@Nonnull Class<G> generatorType, @Nonnull Factory<G> factory) {
+        FACTORIES.put(generatorType, factory);
+    }
+
+    /**
+     * Creates a sampler for a world.
+     *
+     * @return The sampler, or null if no factory is registered for the world's generator type
+     */
+    @Nullable
+    public static PathfinderBiomeSampler forWorld(@Nonnull World world) {
+        return forGenerator(world.getChunkStore().getGenerator(), (int)world.getWorldConfig().getSeed());
+    }
+
+    /**
+     * Creates a sampler for a generator.
+     *
+     * @return The sampler, or null if no factory is registered for the generator type
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static PathfinderBiomeSampler forGenerator(@Nonnull IWorldGen generator, int seed) {
+        for (Class<?> type = generator.getClass(); type != null; type = type.getSuperclass()) {
+            Factory<IWorldGen> factory = (Factory<IWorldGen>) FACTORIES.get(type);
+            if (factory != null) {
+                return factory.create(generator, seed);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.server.worldgen.chunk.ChunkGenerator;
+import com.hypixel.hytale.server.worldgen.zone.ZoneGeneratorResult;
+import javax.annotation.Nonnull;
+
+/** {@link PathfinderBiomeSampler} for the v1 world generator, {@link ChunkGenerator}. */
+public final class PathfinderChunkGeneratorSampler implements PathfinderBiomeSampler {
+    private final ChunkGenerator generator;
+    private final int seed;
+    private final PathfinderBiomeCatalog catalog;
+
+    public PathfinderChunkGeneratorSampler(@Nonnull ChunkGenerator generator, int seed) {
+        this.generator = generator;
+        this.seed = seed;
+        this.catalog = PathfinderBiomeCatalog.forGenerator(generator);
+    }
+
+    @Override
+    public int biomeIdAt(int x, int z) {
+        return this.catalog.idOf(this.generator.getZoneBiomeResultAt(this.seed, x, z).getBiome());
+    }
+
+    /** ChunkGenerator has no bulk API; this only hoists the field reads out of the loop. */
+    @Override
+    public void sampleGrid(int x0, int z0, int stride, int width, int height, @Nonnull int[] out) {
+        ChunkGenerator generator = this.generator;
+        PathfinderBiomeCatalog catalog = this.catalog;
+        int seed = this.seed;
+        for (int row = 0; row < height; row++) {
+            int z = z0 + row * stride;
+            int offset = row * width;
+            for (int col = 0; col < width; col++) {
+                out[offset + col] = catalog.idOf(generator.getZoneBiomeResultAt(seed, x0 + col * stride, z).getBiome());
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public PathfinderBiomeCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    @Nonnull
+    @Override
+    public ZoneGeneratorResult zoneAt(int x, int z) {
+        return this.generator.getZoneBiomeResultAt(this.seed, x, z).getZoneResult();
+    }
+
+    @Nonnull
+    @Override
+    public Object getSource() {
+        return this.generator;
+    }
+
+    @Override
+    public int getSeed() {
+        return this.seed;
+    }
+}
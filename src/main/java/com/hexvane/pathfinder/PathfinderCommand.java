@@ -8,10 +8,6 @@ import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.command.system.CommandUtil;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
-import com.hypixel.hytale.server.core.universe.world.worldgen.IWorldGen;
-import com.hypixel.hytale.server.worldgen.biome.Biome;
-import com.hypixel.hytale.server.worldgen.chunk.ChunkGenerator;
-import com.hypixel.hytale.server.worldgen.chunk.ZoneBiomeResult;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
@@ -29,8 +25,15 @@ public class PathfinderCommand extends AbstractPlayerCommand {
     private static final Message MESSAGE_MARKER_CLEARED = Message.raw("Pathfinder marker(s) cleared.");
     private static final Message MESSAGE_NO_MARKERS = Message.raw("No pathfinder markers found.");
     private static final Message MESSAGE_SPECIFIC_BIOME_NOT_FOUND = Message.raw("No marker found for that biome.");
-    private static final Message MESSAGE_USAGE = Message.raw("Usage: /pathfinder search <biome> | clear [biome] | list");
+    private static final Message MESSAGE_USAGE = Message.raw("Usage: /pathfinder search <biome>[,<biome>...] | search all | cancel | clear [biome] | list");
+    private static final Message MESSAGE_NOTHING_REMAINING = Message.raw("You already have markers for every biome in this world.");
+    private static final String SEARCH_ALL_REMAINING = "all";
     private static final Message MESSAGE_LISTING_BIOMES = Message.raw("Discovering biomes in the area...");
+    private static final Message MESSAGE_SEARCH_CANCELLED = Message.raw("Biome search cancelled.");
+    private static final Message MESSAGE_NO_SEARCH_RUNNING = Message.raw("You have no biome search running.");
+    private static final Message MESSAGE_NO_PERMISSION = Message.raw("You do not have permission to use this command.");
+    private static final Message MESSAGE_INDEX_USAGE = Message.raw("Usage: /pathfinder index pause | resume | status");
+    private static final String PERMISSION_ADMIN = "pathfinder.admin";
     
     public PathfinderCommand() {
         super("pathfinder", "Search for biomes and place markers on the map compass");
@@ -59,16 +62,28 @@ public class PathfinderCommand extends AbstractPlayerCommand {
         
         if ("search".equals(action)) {
             if (parts.length < 2 || parts[1].trim().isEmpty()) {
-                context.sendMessage(Message.raw("Usage: /pathfinder search <biome>"));
+                context.sendMessage(Message.raw("Usage: /pathfinder search <biome>[,<biome>...] | all"));
                 return;
             }
             String biomeName = parts[1].trim();
-            handleSearch(context, store, ref, world, biomeName);
+            if (SEARCH_ALL_REMAINING.equalsIgnoreCase(biomeName) || biomeName.contains(",")) {
+                handleBatchSearch(context, store, ref, playerRef, world, biomeName);
+            } else {
+                handleSearch(context, store, ref, playerRef, world, biomeName);
+            }
+        } else if ("cancel".equals(action)) {
+            boolean cancelled = PathfinderSearchExecutor.cancel(playerRef.getUuid());
+            context.sendMessage(cancelled ? MESSAGE_SEARCH_CANCELLED : MESSAGE_NO_SEARCH_RUNNING);
         } else if ("clear".equals(action)) {
             String biomeName = parts.length >= 2 && !parts[1].trim().isEmpty() ? parts[1].trim() : null;
             handleClear(context, store, ref, world, biomeName);
         } else if ("list".equals(action)) {
             handleList(context, store, ref, world);
+        } else if ("stats".equals(action)) {
+            handleStats(context);
+        } else if ("index".equals(action)) {
+            String indexAction = parts.length >= 2 ? parts[1].trim().toLowerCase() : "status";
+            handleIndex(context, indexAction);
         } else {
             context.sendMessage(MESSAGE_USAGE);
         }
@@ -78,6 +93,7 @@ public class PathfinderCommand extends AbstractPlayerCommand {
             @Nonnull CommandContext context,
             @Nonnull Store<EntityStore> store,
             @Nonnull Ref<EntityStore> ref,
+            @Nonnull PlayerRef playerRef,
             @Nonnull World world,
             @Nonnull String biomeName
     ) {
@@ -93,38 +109,35 @@ public class PathfinderCommand extends AbstractPlayerCommand {
         int startZ = (int)position.getZ();
         
         // First, check what biome the player is currently in
-        IWorldGen worldGen = world.getChunkStore().getGenerator();
-        if (worldGen instanceof ChunkGenerator generator) {
+        PathfinderBiomeSampler sampler = PathfinderBiomeSamplers.forWorld(world);
+        if (sampler != null) {
             try {
-                int seed = (int)world.getWorldConfig().getSeed();
-                ZoneBiomeResult currentResult = generator.getZoneBiomeResultAt(seed, startX, startZ);
-                Biome currentBiome = currentResult.getBiome();
-                String currentBiomeName = currentBiome.getName();
+                String currentBiomeName = PathfinderBiomeIds.nameOf(sampler.biomeIdAt(startX, startZ));
                 context.sendMessage(Message.raw("You are currently in biome: '" + currentBiomeName + "'"));
                 context.sendMessage(Message.raw("Searching for biome: '" + biomeName + "'"));
             } catch (Exception e) {
                 context.sendMessage(Message.raw("Error checking current biome: " + e.getMessage()));
             }
         } else {
-            context.sendMessage(Message.raw("Warning: World generator is not ChunkGenerator (v1). Type: " + worldGen.getClass().getName()));
+            context.sendMessage(Message.raw("Warning: Biome search does not support this world generator. Type: "
+                    + world.getChunkStore().getGenerator().getClass().getName()));
         }
         
-        // Perform search asynchronously
-        // Note: AbstractPlayerCommand already runs in async context, so we use world's executor
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                com.hypixel.hytale.logger.HytaleLogger logger = com.hypixel.hytale.logger.HytaleLogger.forEnclosingClass();
-                logger.atInfo().log("Starting async biome search for '%s'", biomeName);
-                int[] result = PathfinderSearchUtil.searchForBiome(world, startX, startZ, biomeName);
-                logger.atInfo().log("Biome search completed, result: %s", result != null ? "found" : "not found");
-                return result;
-            } catch (Exception e) {
-                com.hypixel.hytale.logger.HytaleLogger logger = com.hypixel.hytale.logger.HytaleLogger.forEnclosingClass();
-                logger.atSevere().log("Error during biome search: %s", e.getMessage());
-                e.printStackTrace();
-                return null;
-            }
-        }, world).thenAcceptAsync(result -> {
+        // Perform search on the dedicated search pool so the world thread keeps ticking;
+        // only marker creation hops back to the world executor
+        PathfinderSearchHandle<int[]> handle;
+        try {
+            handle = PathfinderSearchExecutor.submit(playerRef.getUuid(), world, biomeName, startX, startZ);
+        } catch (PathfinderSearchRejectedException e) {
+            context.sendMessage(Message.raw(e.getMessage()));
+            return;
+        }
+        if (handle.hasReplacedSearch()) {
+            context.sendMessage(PathfinderSearchService.MESSAGE_PREVIOUS_SEARCH_CANCELLED);
+        }
+        PathfinderSearchService.notifyQueued(playerRef.getUuid(), context::sendMessage);
+        
+        handle.result().thenAcceptAsync(result -> {
             com.hypixel.hytale.logger.HytaleLogger callbackLogger = com.hypixel.hytale.logger.HytaleLogger.forEnclosingClass();
             callbackLogger.atInfo().log("Marker creation callback started, result is null: %s", result == null);
             try {
@@ -217,6 +230,59 @@ public class PathfinderCommand extends AbstractPlayerCommand {
         }, world);
     }
     
+    /**
+     * Searches for a comma-separated list of biomes, or for every biome the player has no marker for yet,
+     * in a single sweep.
+     */
+    private void handleBatchSearch(
+            @Nonnull CommandContext context,
+            @Nonnull Store<EntityStore> store,
+            @Nonnull Ref<EntityStore> ref,
+            @Nonnull PlayerRef playerRef,
+            @Nonnull World world,
+            @Nonnull String biomeList
+    ) {
+        List<String> biomeNames = new ArrayList<>();
+        if (SEARCH_ALL_REMAINING.equalsIgnoreCase(biomeList)) {
+            java.util.Set<String> allBiomes = PathfinderSearchUtil.getAllBiomes(world);
+            if (allBiomes == null || allBiomes.isEmpty()) {
+                context.sendMessage(Message.raw("No biomes found or world generator not supported."));
+                return;
+            }
+            Player playerComponent = store.getComponent(ref, Player.getComponentType());
+            if (playerComponent == null) {
+                context.sendMessage(Message.raw("Unable to get player component."));
+                return;
+            }
+            java.util.Set<String> marked = new java.util.HashSet<>();
+            for (MapMarker marker : PathfinderMarkerStorage.getMarkers(world.getName(), playerComponent)) {
+                String markedBiome = PathfinderMarkerSet.biomeNameOf(marker.id);
+                if (markedBiome != null) {
+                    marked.add(markedBiome);
+                }
+            }
+            for (String biomeName : allBiomes) {
+                if (!marked.contains(biomeName)) {
+                    biomeNames.add(biomeName);
+                }
+            }
+            if (biomeNames.isEmpty()) {
+                context.sendMessage(MESSAGE_NOTHING_REMAINING);
+                return;
+            }
+            java.util.Collections.sort(biomeNames);
+        } else {
+            for (String biomeName : biomeList.split(",")) {
+                String trimmed = biomeName.trim();
+                if (!trimmed.isEmpty() && !biomeNames.contains(trimmed)) {
+                    biomeNames.add(trimmed);
+                }
+            }
+        }
+        
+        PathfinderSearchService.searchForBiomes(store, ref, playerRef, world, biomeNames, context::sendMessage);
+    }
+    
     private void handleClear(
             @Nonnull CommandContext context,
             @Nonnull Store<EntityStore> store,
@@ -243,7 +309,7 @@ public class PathfinderCommand extends AbstractPlayerCommand {
         if (biomeName != null) {
             // Clear specific biome marker
             for (MapMarker marker : existingMarkers) {
-                if (isPathfinderMarker(marker) && biomeName.equals(marker.name)) {
+                if (isPathfinderMarker(marker) && biomeName.equalsIgnoreCase(PathfinderMarkerSet.biomeNameOf(marker.id))) {
                     found = true;
                     // Skip this marker (don't add to filtered list)
                 } else {
@@ -293,6 +359,49 @@ public class PathfinderCommand extends AbstractPlayerCommand {
         });
     }
     
+    private void handleIndex(@Nonnull CommandContext context, @Nonnull String indexAction) {
+        if (!context.sender().hasPermission(PERMISSION_ADMIN)) {
+            context.sendMessage(MESSAGE_NO_PERMISSION);
+            return;
+        }
+        if (!PathfinderPreIndexer.isStarted()) {
+            context.sendMessage(Message.raw("The biome pre-indexer is disabled (PreIndexEnabled in the Pathfinder config)."));
+            return;
+        }
+        
+        switch (indexAction) {
+            case "pause":
+                PathfinderPreIndexer.pause();
+                context.sendMessage(Message.raw("Biome pre-indexer paused."));
+                break;
+            case "resume":
+                PathfinderPreIndexer.resume();
+                context.sendMessage(Message.raw("Biome pre-indexer resumed."));
+                break;
+            case "status":
+                context.sendMessage(Message.raw("Biome pre-indexer is " + (PathfinderPreIndexer.isPaused() ? "paused" : "running")
+                        + ": " + PathfinderPreIndexer.getLookups() + " points visited, "
+                        + PathfinderPreIndexer.getGeneratorCalls() + " sampled from the world generator"));
+                for (String line : PathfinderPreIndexer.describeProgress()) {
+                    context.sendMessage(Message.raw("  " + line));
+                }
+                break;
+            default:
+                context.sendMessage(MESSAGE_INDEX_USAGE);
+        }
+    }
+    
+    private void handleStats(@Nonnull CommandContext context) {
+        if (!context.sender().hasPermission(PERMISSION_ADMIN)) {
+            context.sendMessage(MESSAGE_NO_PERMISSION);
+            return;
+        }
+        context.sendMessage(Message.raw("Pathfinder statistics since server start:"));
+        for (String line : PathfinderMetrics.describe()) {
+            context.sendMessage(Message.raw("  " + line));
+        }
+    }
+    
     private boolean isPathfinderMarker(@Nonnull MapMarker marker) {
         return marker.id != null && marker.id.startsWith("pathfinder_");
     }
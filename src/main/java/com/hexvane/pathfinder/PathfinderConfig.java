@@ -0,0 +1,151 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Plugin configuration, loaded from the plugin's Pathfinder.json config file.
+ * Missing keys keep the defaults declared below.
+ */
+public class PathfinderConfig {
+    /** Walks every lattice point ring by ring; always finds the nearest lattice hit. */
+    public static final String SEARCH_MODE_EXACT = "Exact";
+    /** Sweeps a coarse lattice first, then refines around the hit. Much cheaper, may miss small patches. */
+    public static final String SEARCH_MODE_ADAPTIVE = "Adaptive";
+
+    public static final BuilderCodec<PathfinderConfig> CODEC = BuilderCodec.builder(
+            PathfinderConfig.class, PathfinderConfig::new
+    )
+    .append(new KeyedCodec<>("SearchThreads", Codec.INTEGER), (config, v) -> config.searchThreads = v, config -> config.searchThreads)
+    .add()
+    .append(new KeyedCodec<>("MaxSearchesPerWorld", Codec.INTEGER), (config, v) -> config.maxSearchesPerWorld = v, config -> config.maxSearchesPerWorld)
+    .add()
+    .append(new KeyedCodec<>("MaxConcurrentSearches", Codec.INTEGER), (config, v) -> config.maxConcurrentSearches = v, config -> config.maxConcurrentSearches)
+    .add()
+    .append(new KeyedCodec<>("SearchQueueSize", Codec.INTEGER), (config, v) -> config.searchQueueSize = v, config -> config.searchQueueSize)
+    .add()
+    .append(new KeyedCodec<>("SearchesPerMinute", Codec.INTEGER), (config, v) -> config.searchesPerMinute = v, config -> config.searchesPerMinute)
+    .add()
+    .append(new KeyedCodec<>("DiscoveryStableRings", Codec.INTEGER), (config, v) -> config.discoveryStableRings = v, config -> config.discoveryStableRings)
+    .add()
+    .append(new KeyedCodec<>("BiomeCacheTiles", Codec.INTEGER), (config, v) -> config.biomeCacheTiles = v, config -> config.biomeCacheTiles)
+    .add()
+    .append(new KeyedCodec<>("BiomeIndexEnabled", Codec.BOOLEAN), (config, v) -> config.biomeIndexEnabled = v, config -> config.biomeIndexEnabled)
+    .add()
+    .append(new KeyedCodec<>("MaxMarkersPerPlayer", Codec.INTEGER), (config, v) -> config.maxMarkersPerPlayer = v, config -> config.maxMarkersPerPlayer)
+    .add()
+    .append(new KeyedCodec<>("MarkerPersistenceEnabled", Codec.BOOLEAN), (config, v) -> config.markerPersistenceEnabled = v, config -> config.markerPersistenceEnabled)
+    .add()
+    .append(new KeyedCodec<>("PreIndexEnabled", Codec.BOOLEAN), (config, v) -> config.preIndexEnabled = v, config -> config.preIndexEnabled)
+    .add()
+    .append(new KeyedCodec<>("PreIndexSamplesPerSecond", Codec.INTEGER), (config, v) -> config.preIndexSamplesPerSecond = v, config -> config.preIndexSamplesPerSecond)
+    .add()
+    .append(new KeyedCodec<>("PreIndexRadius", Codec.INTEGER), (config, v) -> config.preIndexRadius = v, config -> config.preIndexRadius)
+    .add()
+    .append(new KeyedCodec<>("ZonePruningEnabled", Codec.BOOLEAN), (config, v) -> config.zonePruningEnabled = v, config -> config.zonePruningEnabled)
+    .add()
+    .append(new KeyedCodec<>("SearchMode", Codec.STRING), (config, v) -> config.searchMode = v, config -> config.searchMode)
+    .add()
+    .append(new KeyedCodec<>("CoarseStride", Codec.INTEGER), (config, v) -> config.coarseStride = v, config -> config.coarseStride)
+    .add()
+    .build();
+
+    private int searchThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int maxSearchesPerWorld = 4;
+    private int maxConcurrentSearches = 8;
+    private int searchQueueSize = 32;
+    private int searchesPerMinute = 10;
+    private int discoveryStableRings = 16;
+    private int biomeCacheTiles = PathfinderBiomeCache.DEFAULT_MAX_TILES;
+    private boolean biomeIndexEnabled = true;
+    private int maxMarkersPerPlayer = PathfinderMarkerStorage.DEFAULT_MAX_MARKERS;
+    private boolean markerPersistenceEnabled = true;
+    private boolean preIndexEnabled = true;
+    private int preIndexSamplesPerSecond = 2000;
+    private int preIndexRadius = 2048;
+    private boolean zonePruningEnabled = true;
+    private String searchMode = SEARCH_MODE_EXACT;
+    private int coarseStride = 64;
+
+    /** Number of worker threads in the dedicated biome search pool. */
+    public int getSearchThreads() {
+        return Math.max(1, this.searchThreads);
+    }
+
+    /** Maximum number of searches that may run at the same time in a single world. */
+    public int getMaxSearchesPerWorld() {
+        return Math.max(1, this.maxSearchesPerWorld);
+    }
+
+    /** Maximum number of searches that may run at the same time across all worlds; further searches are queued. */
+    public int getMaxConcurrentSearches() {
+        return Math.max(1, this.maxConcurrentSearches);
+    }
+
+    /** Maximum number of searches waiting for a free slot; requests beyond that are rejected. */
+    public int getSearchQueueSize() {
+        return Math.max(0, this.searchQueueSize);
+    }
+
+    /** Number of searches a single player may start per minute. */
+    public int getSearchesPerMinute() {
+        return Math.max(1, this.searchesPerMinute);
+    }
+
+    /** Number of consecutive rings without a new biome after which biome discovery by sampling stops. */
+    public int getDiscoveryStableRings() {
+        return Math.max(1, this.discoveryStableRings);
+    }
+
+    /** Maximum number of 512x512 block tiles kept in the shared biome sample cache (about 2 KB each). */
+    public int getBiomeCacheTiles() {
+        return Math.max(1, this.biomeCacheTiles);
+    }
+
+    /** Whether sampled biomes are persisted to the on-disk biome index in the plugin data directory. */
+    public boolean isBiomeIndexEnabled() {
+        return this.biomeIndexEnabled;
+    }
+
+    /** Maximum number of pathfinder markers a player keeps per world; the least recently added are evicted. */
+    public int getMaxMarkersPerPlayer() {
+        return Math.max(1, this.maxMarkersPerPlayer);
+    }
+
+    /** Whether player markers are saved to the plugin data directory and restored when players join. */
+    public boolean isMarkerPersistenceEnabled() {
+        return this.markerPersistenceEnabled;
+    }
+
+    /** Whether biomes around spawn and online players are sampled in the background while no search runs. */
+    public boolean isPreIndexEnabled() {
+        return this.preIndexEnabled;
+    }
+
+    /** Maximum number of world generator calls per second made by the background pre-indexer. */
+    public int getPreIndexSamplesPerSecond() {
+        return Math.max(1, this.preIndexSamplesPerSecond);
+    }
+
+    /** Radius in blocks the background pre-indexer covers around spawn and each online player. */
+    public int getPreIndexRadius() {
+        return Math.max(PathfinderBiomeCache.CELL_SIZE, this.preIndexRadius);
+    }
+
+    /** Whether searches skip regions whose zone cannot produce the target biome. */
+    public boolean isZonePruningEnabled() {
+        return this.zonePruningEnabled;
+    }
+
+    /** Whether searches use the coarse-to-fine {@value #SEARCH_MODE_ADAPTIVE} mode instead of the exact walk. */
+    public boolean isAdaptiveSearch() {
+        return SEARCH_MODE_ADAPTIVE.equalsIgnoreCase(this.searchMode);
+    }
+
+    /** Stride in blocks of the coarse pass of adaptive searches, rounded to a multiple of the sampling lattice. */
+    public int getCoarseStride() {
+        int cell = PathfinderBiomeCache.CELL_SIZE;
+        return Math.max(cell, this.coarseStride / cell * cell);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hexvane.pathfinder;
+
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * In-memory {@link PathfinderBiomeSampler} backed by a grid of biome IDs, for tests and tooling that run without a
+ * world generator. The grid covers a square area centered on the origin and repeats outside of it.
+ */
+public final class PathfinderGridBiomeSampler implements PathfinderBiomeSampler {
+    private final int[] biomeIds;
+    private final int size;
+    private final int cellSize;
+    private final int origin;
+    private final PathfinderBiomeCatalog catalog;
+
+    /**
+     * @param biomeIds Biome ID of every grid cell, row by row
+     * @param size Number of cells per row and column
+     * @param cellSize Size of a grid cell in blocks
+     */
+    public PathfinderGridBiomeSampler(@Nonnull int[] biomeIds, int size, int cellSize) {
+        if (biomeIds.length != size * size) {
+            throw new IllegalArgumentException("Expected " + size * size + " biome IDs, got " + biomeIds.length);
+        }
+        this.biomeIds = biomeIds.clone();
+        this.size = size;
+        this.cellSize = cellSize;
+        this.origin = size / 2;
+        Set<String> names = new HashSet<>();
+        for (int id : biomeIds) {
+            String name = PathfinderBiomeIds.nameOf(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        this.catalog = PathfinderBiomeCatalog.of(names);
+    }
+
+    @Override
+    public int biomeIdAt(int x, int z) {
+        int col = Math.floorMod(Math.floorDiv(x, this.cellSize) + this.origin, this.size);
+        int row = Math.floorMod(Math.floorDiv(z, this.cellSize) + this.origin, this.size);
+        return this.biomeIds[row * this.size + col];
+    }
+
+    @Nonnull
+    @Override
+    public PathfinderBiomeCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    @Nonnull
+    @Override
+    public Object getSource() {
+        return this;
+    }
+
+    @Override
+    public int getSeed() {
+        return 0;
+    }
+}
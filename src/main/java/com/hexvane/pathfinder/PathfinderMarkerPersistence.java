@@ -0,0 +1,230 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.protocol.Position;
+import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+/**
+ * Saves {@link PathfinderMarkerStorage} to disk and restores it when players join.
+ * <p>
+ * Changes only mark a (world, player) pair dirty. The {@link PathfinderBackground} thread writes all dirty pairs
+ * every {@value #FLUSH_PERIOD_MILLIS} ms, so bursts of changes to one player's markers cost one write and no disk
+ * I/O ever runs on a world thread. Markers are read on the same thread when a player connects; because it is a
+ * single thread, a server full of players joining at once is loaded one file after another instead of in parallel.
+ * <p>
+ * Layout of {@code <plugin data>/markers/<world>/<player uuid>.pfm}: magic, format version and the world name,
+ * followed by the marker count and for each marker its ID, icon and position. Display names are rebuilt from
+ * the biome name in the marker ID. Only pathfinder markers are saved.
+ */
+public final class PathfinderMarkerPersistence {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    public static final int VERSION = 1;
+    /** "PFMK" */
+    private static final int MAGIC = 0x50464D4B;
+    private static final String EXTENSION = ".pfm";
+    private static final long FLUSH_PERIOD_MILLIS = 2000;
+    private static final Position ORIGIN = new Position(0.0, 0.0, 0.0);
+
+    /** World name to players whose markers changed since the last flush. */
+    private static final Map<String, Set<UUID>> DIRTY = new ConcurrentHashMap<>();
+    /** Players whose saved markers are not loaded yet; their markers are not written until they are. */
+    private static final Set<UUID> LOADING = ConcurrentHashMap.newKeySet();
+    private static volatile Path root;
+
+    private PathfinderMarkerPersistence() {
+    }
+
+    /** Enables persistence under the given directory and starts the periodic write-behind flush. */
+    public static synchronized void start(@Nonnull Path directory) {
+        if (root != null) {
+            return;
+        }
+        root = directory;
+        PathfinderBackground.scheduleAtFixedRate("marker flush", PathfinderMarkerPersistence::flush, FLUSH_PERIOD_MILLIS);
+    }
+
+    /** Writes all pending changes and disables persistence. Must not run on a world thread. */
+    public static synchronized void shutdown() {
+        if (root == null) {
+            return;
+        }
+        flush();
+        root = null;
+        DIRTY.clear();
+        LOADING.clear();
+    }
+
+    /** Records that a player's markers in a world changed and must be written on the next flush. */
+    static void markDirty(@Nonnull String worldName, @Nonnull UUID playerId) {
+        if (root != null) {
+            DIRTY.computeIfAbsent(worldName, k -> ConcurrentHashMap.newKeySet()).add(playerId);
+        }
+    }
+
+    /** Loads a player's saved markers of every world in the background, e.g. when they connect. */
+    public static void loadPlayer(@Nonnull UUID playerId) {
+        if (root == null || !LOADING.add(playerId)) {
+            return;
+        }
+        PathfinderBackground.executor().execute(() -> {
+            try {
+                load(playerId);
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to load markers of player %s: %s", playerId, e.getMessage());
+            } finally {
+                LOADING.remove(playerId);
+            }
+        });
+    }
+
+    /** Writes a player's pending changes in the background, then drops their markers from memory. */
+    public static void unloadPlayer(@Nonnull UUID playerId) {
+        if (root == null) {
+            PathfinderMarkerStorage.removePlayer(playerId);
+            return;
+        }
+        PathfinderBackground.executor().execute(() -> {
+            for (Map.Entry<String, Set<UUID>> entry : DIRTY.entrySet()) {
+                if (entry.getValue().remove(playerId)) {
+                    save(entry.getKey(), playerId);
+                }
+            }
+            PathfinderMarkerStorage.removePlayer(playerId);
+        });
+    }
+
+    /** Writes a world's pending changes in the background, then drops its markers from memory. */
+    public static void unloadWorld(@Nonnull String worldName) {
+        if (root == null) {
+            PathfinderMarkerStorage.removeWorld(worldName);
+            return;
+        }
+        PathfinderBackground.executor().execute(() -> {
+            Set<UUID> players = DIRTY.remove(worldName);
+            if (players != null) {
+                for (UUID playerId : players) {
+                    save(worldName, playerId);
+                }
+            }
+            PathfinderMarkerStorage.removeWorld(worldName);
+        });
+    }
+
+    /** Writes every dirty (world, player) pair. */
+    private static synchronized void flush() {
+        if (root == null) {
+            return;
+        }
+        for (Map.Entry<String, Set<UUID>> entry : DIRTY.entrySet()) {
+            Iterator<UUID> players = entry.getValue().iterator();
+            while (players.hasNext()) {
+                UUID playerId = players.next();
+                if (LOADING.contains(playerId)) {
+                    // Writing now would replace the saved markers with only the ones added since joining
+                    continue;
+                }
+                // Removed before reading, so a change made during the write marks the pair dirty again
+                players.remove();
+                save(entry.getKey(), playerId);
+            }
+        }
+    }
+
+    private static void save(@Nonnull String worldName, @Nonnull UUID playerId) {
+        Path base = root;
+        if (base == null) {
+            return;
+        }
+        MapMarker[] markers = PathfinderMarkerStorage.getPathfinderMarkers(worldName, playerId);
+        Path file = base.resolve(PathfinderBiomeIndex.sanitize(worldName)).resolve(playerId + EXTENSION);
+        try {
+            if (markers.length == 0) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeUTF(worldName);
+                out.writeInt(markers.length);
+                for (MapMarker marker : markers) {
+                    Position position = marker.transform == null || marker.transform.position == null
+                            ? ORIGIN : marker.transform.position;
+                    out.writeUTF(marker.id);
+                    out.writeUTF(marker.markerImage == null ? "" : marker.markerImage);
+                    out.writeDouble(position.x);
+                    out.writeDouble(position.y);
+                    out.writeDouble(position.z);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to save markers of player %s in world %s: %s", playerId, worldName, e.getMessage());
+        }
+    }
+
+    private static void load(@Nonnull UUID playerId) throws IOException {
+        Path base = root;
+        if (base == null || !Files.isDirectory(base)) {
+            return;
+        }
+        long start = System.nanoTime();
+        int loaded = 0;
+        try (Stream<Path> worlds = Files.list(base)) {
+            for (Path directory : (Iterable<Path>) worlds::iterator) {
+                Path file = directory.resolve(playerId + EXTENSION);
+                if (Files.isRegularFile(file)) {
+                    loaded += read(file, playerId);
+                }
+            }
+        }
+        if (loaded > 0) {
+            LOGGER.atFine().log("Loaded %d markers of player %s in %d ms", loaded, playerId,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private static int read(@Nonnull Path file, @Nonnull UUID playerId) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+                LOGGER.atWarning().log("Ignoring marker file %s: unknown format", file);
+                return 0;
+            }
+            String worldName = in.readUTF();
+            int count = in.readInt();
+            List<MapMarker> markers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String icon = in.readUTF();
+                double x = in.readDouble();
+                double y = in.readDouble();
+                double z = in.readDouble();
+                String name = PathfinderMarkerSet.biomeNameOf(id);
+                markers.add(PathfinderMarkerFactory.create(id, name == null ? id : name, icon, x, y, z));
+            }
+            PathfinderMarkerStorage.restore(worldName, playerId, markers.toArray(PathfinderMarkerSet.NO_MARKERS));
+            return count;
+        }
+    }
+}
@@ -7,6 +7,14 @@ import com.hypixel.hytale.server.core.universe.world.worldmap.WorldMapManager;
 import com.hypixel.hytale.server.core.universe.world.worldmap.markers.MarkersCollector;
 import javax.annotation.Nonnull;
 
+/**
+ * Publishes each player's pathfinder markers to the world map.
+ * <p>
+ * The collector only accepts additions, and the map tracker treats a marker that is not added again as removed,
+ * so every update must hand over the full set. It stays cheap because the set is a shared snapshot that is only
+ * replaced when its version changes: between changes the same marker instances are added on every tick, and the
+ * tracker has nothing new to send.
+ */
 public class PathfinderMarkerProvider implements WorldMapManager.MarkerProvider {
     public static final PathfinderMarkerProvider INSTANCE = new PathfinderMarkerProvider();
 
@@ -15,13 +23,12 @@ public class PathfinderMarkerProvider implements WorldMapManager.MarkerProvider
 
     @Override
     public void update(@Nonnull World world, @Nonnull Player player, @Nonnull MarkersCollector collector) {
-        // Use Player as key - same instance is used when adding markers from command/GUI
-        MapMarker[] markers = PathfinderMarkerStorage.getMarkers(world.getName(), player);
+        // Shared, pre-filtered snapshot; nothing is copied or filtered here, and an unchanged version means
+        // these are the very instances added on the previous tick
+        MapMarker[] markers = PathfinderMarkerStorage.getPathfinderMarkers(world.getName(), player);
         for (MapMarker marker : markers) {
-            if (marker.id != null && marker.id.startsWith("pathfinder_")) {
-                // Use addIgnoreViewDistance so far-away biome markers still show on the map/compass
-                collector.addIgnoreViewDistance(marker);
-            }
+            // Use addIgnoreViewDistance so far-away biome markers still show on the map/compass
+            collector.addIgnoreViewDistance(marker);
         }
     }
 }
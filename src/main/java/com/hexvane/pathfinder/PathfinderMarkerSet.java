@@ -0,0 +1,152 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable snapshot of one player's markers in one world, published by {@link PathfinderMarkerStorage}.
+ * Holds the markers once as stored and once pre-filtered to pathfinder markers, so the world map can read them
+ * without filtering or copying. The arrays are shared and must not be modified.
+ * <p>
+ * Every snapshot carries a version stamp that is unique across all snapshots and grows with each change, so
+ * readers can tell whether a player's markers changed by comparing one long.
+ */
+final class PathfinderMarkerSet {
+    static final String MARKER_ID_PREFIX = "pathfinder_";
+    static final MapMarker[] NO_MARKERS = new MapMarker[0];
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    static final PathfinderMarkerSet EMPTY = new PathfinderMarkerSet(NO_MARKERS, 0L);
+
+    private final MapMarker[] markers;
+    private final MapMarker[] pathfinderMarkers;
+    private final long version;
+
+    private PathfinderMarkerSet(@Nonnull MapMarker[] markers) {
+        this(markers, VERSIONS.incrementAndGet());
+    }
+
+    private PathfinderMarkerSet(@Nonnull MapMarker[] markers, long version) {
+        this.markers = markers;
+        this.pathfinderMarkers = filter(markers);
+        this.version = version;
+    }
+
+    /** Creates a snapshot holding a copy of the given markers. */
+    @Nonnull
+    static PathfinderMarkerSet of(@Nonnull MapMarker[] markers) {
+        return markers.length == 0 ? EMPTY : new PathfinderMarkerSet(markers.clone());
+    }
+
+    /**
+     * Creates a snapshot of the given markers with at most one pathfinder marker per biome, the newest, and at
+     * most {@code maxMarkers} pathfinder markers, evicting the oldest first. Markers of other plugins are kept.
+     */
+    @Nonnull
+    static PathfinderMarkerSet bounded(@Nonnull MapMarker[] markers, int maxMarkers) {
+        MapMarker[] kept = new MapMarker[markers.length];
+        Set<String> biomes = new HashSet<>();
+        int start = markers.length;
+        for (int i = markers.length - 1; i >= 0; i--) {
+            MapMarker marker = markers[i];
+            if (isPathfinderMarker(marker)) {
+                String biomeName = biomeNameOf(marker.id);
+                if (biomes.size() >= maxMarkers || !biomes.add(biomeName == null ? marker.id : biomeName)) {
+                    continue;
+                }
+            }
+            kept[--start] = marker;
+        }
+        return start == 0 ? of(kept) : of(Arrays.copyOfRange(kept, start, kept.length));
+    }
+
+    /**
+     * Returns a new snapshot with a marker appended. A pathfinder marker replaces the one for the same biome,
+     * which makes that biome the most recently used; then the least recently used markers are evicted so that at
+     * most {@code maxMarkers} pathfinder markers remain.
+     */
+    @Nonnull
+    PathfinderMarkerSet with(@Nonnull MapMarker marker, int maxMarkers) {
+        MapMarker[] next = new MapMarker[this.markers.length + 1];
+        System.arraycopy(this.markers, 0, next, 0, this.markers.length);
+        next[this.markers.length] = marker;
+        return bounded(next, maxMarkers);
+    }
+
+    /** All markers, in insertion order. */
+    @Nonnull
+    MapMarker[] getMarkers() {
+        return this.markers;
+    }
+
+    /** Only the markers created by Pathfinder, in insertion order. */
+    @Nonnull
+    MapMarker[] getPathfinderMarkers() {
+        return this.pathfinderMarkers;
+    }
+
+    /** Version stamp of this snapshot; 0 for {@link #EMPTY}. */
+    long getVersion() {
+        return this.version;
+    }
+
+    /** Whether this snapshot holds exactly the given marker instances, in order. */
+    boolean holds(@Nonnull MapMarker[] markers) {
+        if (markers.length != this.markers.length) {
+            return false;
+        }
+        for (int i = 0; i < markers.length; i++) {
+            if (markers[i] != this.markers[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        return this.markers.length == 0;
+    }
+
+    static boolean isPathfinderMarker(@Nonnull MapMarker marker) {
+        return marker.id != null && marker.id.startsWith(MARKER_ID_PREFIX);
+    }
+
+    /**
+     * Biome name encoded in a pathfinder marker ID ({@code pathfinder_<biome>_<millis>}).
+     *
+     * @return The biome name, or null if the ID is not a pathfinder marker ID
+     */
+    @Nullable
+    static String biomeNameOf(@Nullable String markerId) {
+        if (markerId == null || !markerId.startsWith(MARKER_ID_PREFIX)) {
+            return null;
+        }
+        int end = markerId.lastIndexOf('_');
+        return end > MARKER_ID_PREFIX.length() ? markerId.substring(MARKER_ID_PREFIX.length(), end) : null;
+    }
+
+    @Nonnull
+    private static MapMarker[] filter(@Nonnull MapMarker[] markers) {
+        int count = 0;
+        for (MapMarker marker : markers) {
+            if (isPathfinderMarker(marker)) {
+                count++;
+            }
+        }
+        if (count == markers.length) {
+            return markers;
+        }
+        MapMarker[] filtered = new MapMarker[count];
+        int i = 0;
+        for (MapMarker marker : markers) {
+            if (isPathfinderMarker(marker)) {
+                filtered[i++] = marker;
+            }
+        }
+        return filtered;
+    }
+}
@@ -1,76 +1,224 @@
 package com.hexvane.pathfinder;
 
-import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
 import com.hypixel.hytale.server.core.entity.entities.Player;
-import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import java.util.ArrayList;
-import java.util.List;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * In-memory storage for pathfinder markers per player per world.
  * Replaces the removed PlayerWorldData.getWorldMapMarkers/setWorldMapMarkers API.
+ * <p>
+ * Markers are kept per world, then per player UUID, so entries never leak between players and can be dropped
+ * when a player disconnects or a world is removed. Every player's markers are an immutable
+ * {@link PathfinderMarkerSet} that writers replace atomically (copy-on-write), so readers such as the world map
+ * marker provider never lock, copy or allocate. Returned arrays are shared snapshots and must not be modified.
+ * <p>
+ * Every change is reported to {@link PathfinderMarkerPersistence}, which saves it in the background and restores
+ * the markers when the player joins again.
  */
 public final class PathfinderMarkerStorage {
-    private static final Map<String, List<MapMarker>> STORAGE = new ConcurrentHashMap<>();
+    /** Rough heap cost of one map entry with its snapshot, excluding the markers. */
+    private static final int ENTRY_BYTES = 160;
+    /** Rough heap cost of one marker with its transform and name, excluding the ID characters. */
+    private static final int MARKER_BYTES = 240;
+
+    public static final int DEFAULT_MAX_MARKERS = 32;
+
+    /** World name to player UUID to the player's current markers. */
+    private static final Map<String, Map<UUID, PathfinderMarkerSet>> STORAGE = new ConcurrentHashMap<>();
+
+    private static volatile int maxMarkers = DEFAULT_MAX_MARKERS;
 
     private PathfinderMarkerStorage() {
     }
 
-    private static String key(@Nonnull String worldName, @Nonnull Object playerKey) {
-        return worldName + ":" + playerKey;
+    /**
+     * Sets how many pathfinder markers a player may have per world. Applies to changes made from now on; markers
+     * already stored are trimmed on their player's next change.
+     */
+    public static void setMaxMarkers(int max) {
+        maxMarkers = Math.max(1, max);
     }
 
     /**
-     * Stable key for a player. Uses only Ref.getIndex() so it is safe to call from any thread
-     * (e.g. WorldMap thread in MarkerProvider.update). Must not call Store.getComponent() here
-     * because Store is thread-affined to the World thread.
+     * Stable identity of a player. Only reads the player's PlayerRef, so it is safe to call from any thread
+     * (e.g. WorldMap thread in MarkerProvider.update).
+     *
+     * @return The player's UUID, or null if the player has no PlayerRef
      */
-    public static String playerKey(@Nonnull Player player) {
-        Ref<EntityStore> ref = player.getReference();
-        if (ref == null || !ref.isValid()) {
-            return "player@" + System.identityHashCode(player);
+    @Nullable
+    public static UUID playerId(@Nonnull Player player) {
+        PlayerRef playerRef = player.getPlayerRef();
+        return playerRef == null ? null : playerRef.getUuid();
+    }
+
+    @Nonnull
+    private static PathfinderMarkerSet get(@Nonnull String worldName, @Nullable UUID playerId) {
+        Map<UUID, PathfinderMarkerSet> world = STORAGE.get(worldName);
+        if (world == null || playerId == null) {
+            return PathfinderMarkerSet.EMPTY;
         }
-        return String.valueOf(ref.getIndex());
+        PathfinderMarkerSet markers = world.get(playerId);
+        return markers == null ? PathfinderMarkerSet.EMPTY : markers;
+    }
+
+    @Nonnull
+    private static Map<UUID, PathfinderMarkerSet> world(@Nonnull String worldName) {
+        return STORAGE.computeIfAbsent(worldName, k -> new ConcurrentHashMap<>());
     }
 
+    /** All markers of a player in a world; the returned array is shared and must not be modified. */
     @Nonnull
-    public static MapMarker[] getMarkers(@Nonnull String worldName, @Nonnull String playerKey) {
-        List<MapMarker> list = STORAGE.get(key(worldName, playerKey));
-        return list == null ? new MapMarker[0] : list.toArray(new MapMarker[0]);
+    public static MapMarker[] getMarkers(@Nonnull String worldName, @Nonnull UUID playerId) {
+        return get(worldName, playerId).getMarkers();
     }
 
     @Nonnull
     public static MapMarker[] getMarkers(@Nonnull String worldName, @Nonnull Player player) {
-        return getMarkers(worldName, playerKey(player));
+        return get(worldName, playerId(player)).getMarkers();
     }
 
-    public static void setMarkers(@Nonnull String worldName, @Nonnull String playerKey, MapMarker[] markers) {
-        String k = key(worldName, playerKey);
+    /**
+     * Version stamp of a player's markers in a world. It changes whenever the markers change and is 0 when the
+     * player has none, so callers can skip work while it stays the same.
+     */
+    public static long getVersion(@Nonnull String worldName, @Nonnull UUID playerId) {
+        return get(worldName, playerId).getVersion();
+    }
+
+    public static long getVersion(@Nonnull String worldName, @Nonnull Player player) {
+        return get(worldName, playerId(player)).getVersion();
+    }
+
+    /**
+     * Only the pathfinder markers of a player in a world, as shown on the world map.
+     * The returned array is shared and must not be modified.
+     */
+    @Nonnull
+    public static MapMarker[] getPathfinderMarkers(@Nonnull String worldName, @Nonnull Player player) {
+        return get(worldName, playerId(player)).getPathfinderMarkers();
+    }
+
+    @Nonnull
+    public static MapMarker[] getPathfinderMarkers(@Nonnull String worldName, @Nonnull UUID playerId) {
+        return get(worldName, playerId).getPathfinderMarkers();
+    }
+
+    /**
+     * Replaces a player's markers in a world. Passing the markers the player already has, e.g. after clearing a
+     * biome they had no marker for, publishes nothing, so the version and the world map stay untouched.
+     */
+    public static void setMarkers(@Nonnull String worldName, @Nonnull UUID playerId, MapMarker[] markers) {
         if (markers == null || markers.length == 0) {
-            STORAGE.remove(k);
+            Map<UUID, PathfinderMarkerSet> world = STORAGE.get(worldName);
+            if (world != null && world.remove(playerId) != null) {
+                PathfinderMarkerPersistence.markDirty(worldName, playerId);
+            }
             return;
         }
-        List<MapMarker> list = new ArrayList<>(markers.length);
-        for (MapMarker m : markers) {
-            list.add(m);
+        if (get(worldName, playerId).holds(markers)) {
+            return;
         }
-        STORAGE.put(k, list);
+        world(worldName).put(playerId, PathfinderMarkerSet.bounded(markers, maxMarkers));
+        PathfinderMarkerPersistence.markDirty(worldName, playerId);
     }
 
     public static void setMarkers(@Nonnull String worldName, @Nonnull Player player, MapMarker[] markers) {
-        setMarkers(worldName, playerKey(player), markers);
+        UUID playerId = playerId(player);
+        if (playerId != null) {
+            setMarkers(worldName, playerId, markers);
+        }
     }
 
-    public static void addMarker(@Nonnull String worldName, @Nonnull String playerKey, @Nonnull MapMarker marker) {
-        String k = key(worldName, playerKey);
-        STORAGE.computeIfAbsent(k, x -> new ArrayList<>()).add(marker);
+    /**
+     * Adds a marker for a player. A pathfinder marker replaces the player's marker for the same biome, and the
+     * least recently added markers are evicted beyond {@link #setMaxMarkers the per-world cap}.
+     */
+    public static void addMarker(@Nonnull String worldName, @Nonnull UUID playerId, @Nonnull MapMarker marker) {
+        world(worldName).compute(playerId, (k, current) ->
+                (current == null ? PathfinderMarkerSet.EMPTY : current).with(marker, maxMarkers));
+        PathfinderMarkerPersistence.markDirty(worldName, playerId);
     }
 
     public static void addMarker(@Nonnull String worldName, @Nonnull Player player, @Nonnull MapMarker marker) {
-        addMarker(worldName, playerKey(player), marker);
+        UUID playerId = playerId(player);
+        if (playerId != null) {
+            addMarker(worldName, playerId, marker);
+        }
+    }
+
+    /**
+     * Puts markers loaded from disk in front of the ones the player added since joining, which win for biomes
+     * found again in the meantime.
+     * Used by {@link PathfinderMarkerPersistence}; does not mark anything dirty.
+     */
+    static void restore(@Nonnull String worldName, @Nonnull UUID playerId, @Nonnull MapMarker[] loaded) {
+        world(worldName).compute(playerId, (k, current) -> {
+            if (current == null || current.isEmpty()) {
+                return PathfinderMarkerSet.bounded(loaded, maxMarkers);
+            }
+            MapMarker[] added = current.getMarkers();
+            MapMarker[] merged = new MapMarker[loaded.length + added.length];
+            System.arraycopy(loaded, 0, merged, 0, loaded.length);
+            System.arraycopy(added, 0, merged, loaded.length, added.length);
+            return PathfinderMarkerSet.bounded(merged, maxMarkers);
+        });
+    }
+
+    /**
+     * Drops the markers of a player in every world from memory, e.g. when they disconnect.
+     * Use {@link PathfinderMarkerPersistence#unloadPlayer} to save pending changes first.
+     */
+    public static void removePlayer(@Nonnull UUID playerId) {
+        for (Map<UUID, PathfinderMarkerSet> world : STORAGE.values()) {
+            world.remove(playerId);
+        }
+    }
+
+    /**
+     * Drops all markers of a world from memory, e.g. when it is removed.
+     * Use {@link PathfinderMarkerPersistence#unloadWorld} to save pending changes first.
+     */
+    public static void removeWorld(@Nonnull String worldName) {
+        STORAGE.remove(worldName);
+    }
+
+    /** Number of stored markers across all worlds and players. */
+    public static int getMarkerCount() {
+        int count = 0;
+        for (Map<UUID, PathfinderMarkerSet> world : STORAGE.values()) {
+            for (PathfinderMarkerSet markers : world.values()) {
+                count += markers.getMarkers().length;
+            }
+        }
+        return count;
+    }
+
+    /** Number of (world, player) marker lists. */
+    public static int getPlayerCount() {
+        int count = 0;
+        for (Map<UUID, PathfinderMarkerSet> world : STORAGE.values()) {
+            count += world.size();
+        }
+        return count;
+    }
+
+    /** Rough estimate of the heap used by stored markers, in bytes. */
+    public static long getEstimatedBytes() {
+        long bytes = 0;
+        for (Map<UUID, PathfinderMarkerSet> world : STORAGE.values()) {
+            for (PathfinderMarkerSet markers : world.values()) {
+                bytes += ENTRY_BYTES;
+                for (MapMarker marker : markers.getMarkers()) {
+                    bytes += MARKER_BYTES + (marker.id == null ? 0 : marker.id.length());
+                }
+            }
+        }
+        return bytes;
     }
 }
@@ -0,0 +1,129 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Counters and histograms of biome searches since the plugin started, shown by {@code /pathfinder stats}.
+ * Searches are recorded once their scan ends; a batch search counts each of its biomes as found or not found.
+ */
+public final class PathfinderMetrics {
+    private static final PathfinderHistogram SEARCH_MILLIS = new PathfinderHistogram();
+    private static final PathfinderHistogram SAMPLES_PER_SEARCH = new PathfinderHistogram();
+    private static final PathfinderHistogram QUEUE_MILLIS = new PathfinderHistogram();
+    private static final LongAdder SEARCH_NANOS = new LongAdder();
+    private static final LongAdder SAMPLES = new LongAdder();
+    private static final LongAdder FOUND = new LongAdder();
+    private static final LongAdder NOT_FOUND = new LongAdder();
+    private static final LongAdder CANCELLED = new LongAdder();
+    private static final LongAdder GENERATOR_FAILURES = new LongAdder();
+
+    private PathfinderMetrics() {
+    }
+
+    /**
+     * Records a finished scan.
+     *
+     * @param elapsedNanos Time the scan ran
+     * @param samples Lattice points checked
+     * @param found Number of target biomes found
+     * @param notFound Number of target biomes not found within the search radius
+     * @param cancelled Whether the scan was cancelled; its biomes are not counted as found or not found
+     */
+    static void recordSearch(long elapsedNanos, long samples, int found, int notFound, boolean cancelled) {
+        SEARCH_MILLIS.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        SAMPLES_PER_SEARCH.record(samples);
+        SEARCH_NANOS.add(elapsedNanos);
+        SAMPLES.add(samples);
+        if (cancelled) {
+            CANCELLED.increment();
+        } else {
+            FOUND.add(found);
+            NOT_FOUND.add(notFound);
+        }
+    }
+
+    /** Records the time a search waited for a free search slot. */
+    static void recordQueueTime(long waitedNanos) {
+        QUEUE_MILLIS.record(TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+    }
+
+    /** Records a world generator call that threw. */
+    static void recordGeneratorFailure() {
+        GENERATOR_FAILURES.increment();
+    }
+
+    /** Wall-clock duration of searches in milliseconds. */
+    @Nonnull
+    public static PathfinderHistogram getSearchMillis() {
+        return SEARCH_MILLIS;
+    }
+
+    /** Lattice points checked per search. */
+    @Nonnull
+    public static PathfinderHistogram getSamplesPerSearch() {
+        return SAMPLES_PER_SEARCH;
+    }
+
+    /** Time searches waited in the admission queue in milliseconds; searches that started immediately record 0. */
+    @Nonnull
+    public static PathfinderHistogram getQueueMillis() {
+        return QUEUE_MILLIS;
+    }
+
+    /** Lattice points checked per second of search time, over all searches. */
+    public static double getSamplesPerSecond() {
+        long nanos = SEARCH_NANOS.sum();
+        return nanos == 0 ? 0.0 : SAMPLES.sum() * 1e9 / nanos;
+    }
+
+    public static long getFound() {
+        return FOUND.sum();
+    }
+
+    public static long getNotFound() {
+        return NOT_FOUND.sum();
+    }
+
+    public static long getCancelled() {
+        return CANCELLED.sum();
+    }
+
+    /** Fraction of searched biomes that were found, from 0 to 1. */
+    public static double getFoundRatio() {
+        long found = getFound();
+        long total = found + getNotFound();
+        return total == 0 ? 0.0 : (double) found / total;
+    }
+
+    public static long getGeneratorFailures() {
+        return GENERATOR_FAILURES.sum();
+    }
+
+    /** Human-readable summary of all metrics, one line per topic. */
+    @Nonnull
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Searches: %d found, %d not found (%.1f%% found), %d cancelled",
+                getFound(), getNotFound(), getFoundRatio() * 100.0, getCancelled()));
+        lines.add("Search time ms: " + SEARCH_MILLIS.describe());
+        lines.add("Samples per search: " + SAMPLES_PER_SEARCH.describe());
+        lines.add(String.format("Sampling rate: %,.0f samples/s; generator failures: %d",
+                getSamplesPerSecond(), getGeneratorFailures()));
+        lines.add("Queue time ms: " + QUEUE_MILLIS.describe());
+        lines.add(String.format("Admission: %d running, %d queued, %d coalesced; rejected %d rate limited, %d queue full",
+                PathfinderSearchExecutor.getRunningSearches(), PathfinderSearchExecutor.getQueuedSearches(),
+                PathfinderSearchExecutor.getCoalescedSearches(),
+                PathfinderSearchExecutor.getRejectedSearches(PathfinderSearchRejectedException.Reason.RATE_LIMITED),
+                PathfinderSearchExecutor.getRejectedSearches(PathfinderSearchRejectedException.Reason.QUEUE_FULL)));
+        PathfinderBiomeCache cache = PathfinderBiomeCache.shared();
+        lines.add(String.format("Biome cache: %.1f%% hit rate, %d tiles", cache.getHitRate() * 100.0, cache.getTileCount()));
+        lines.add(String.format("Marker storage: %d markers in %d player lists, about %d KB",
+                PathfinderMarkerStorage.getMarkerCount(), PathfinderMarkerStorage.getPlayerCount(),
+                PathfinderMarkerStorage.getEstimatedBytes() / 1024));
+        return lines;
+    }
+}
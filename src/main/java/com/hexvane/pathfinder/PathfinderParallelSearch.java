@@ -0,0 +1,252 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Parallel ring search over a square lattice around a center point.
+ * <p>
+ * Cells are visited in the Euclidean order of {@link PathfinderRingOrder}: only cells inside the max-radius circle
+ * are evaluated, and nearer cells come first. Rings are grouped into bands, and every band is split into sectors
+ * of consecutive cells that are evaluated on fork-join workers. The search returns the hit with the lowest walk
+ * index, i.e. the nearest hit, so the result is identical to the sequential walk.
+ * Sectors skip every cell after the best hit found so far, and the search stops once the band containing a hit
+ * is finished.
+ * <p>
+ * With {@link #collectHits(int)} the search instead walks a fixed number of rings past the first hit and records
+ * every hit on the way, so one scan can answer several start points near its center.
+ */
+public final class PathfinderParallelSearch {
+    /** Number of consecutive cells evaluated by one fork-join leaf task. */
+    static final int SECTOR_CELLS = 128;
+
+    @FunctionalInterface
+    public interface CellProbe {
+        /** Returns true if the target is present at the given world coordinates. Called concurrently. */
+        boolean matches(int x, int z);
+    }
+
+    @FunctionalInterface
+    public interface RingListener {
+        /** Called after every band with the outermost finished ring radius in blocks and the cells checked so far. */
+        void onRing(int radius, long checkedCount);
+    }
+
+    private final ForkJoinPool pool;
+    private final int centerX;
+    private final int centerZ;
+    private final int stride;
+    private final int maxRing;
+    private final PathfinderRingOrder order;
+    private final CellProbe probe;
+    private final BooleanSupplier cancelled;
+    private final LongAdder checked = new LongAdder();
+    private int firstRing = 1;
+    private int collectRings = -1;
+    /** Walk indexes of the hits recorded in collecting mode, one array per sector that found any. */
+    private final Queue<int[]> hitIndexes = new ConcurrentLinkedQueue<>();
+    @Nullable
+    private RingListener ringListener;
+
+    /**
+     * @param pool The pool to run sector tasks on
+     * @param centerX Center X coordinate; ring cells are offset from it by multiples of the stride
+     * @param centerZ Center Z coordinate
+     * @param stride Distance in blocks between two lattice cells and between two rings
+     * @param maxRadius Maximum search radius in blocks
+     * @param probe Evaluated for every ring cell
+     * @param cancelled Checked by every sector; the search returns null once it reports true
+     */
+    public PathfinderParallelSearch(
+            @Nonnull ForkJoinPool pool,
+            int centerX,
+            int centerZ,
+            int stride,
+            int maxRadius,
+            @Nonnull CellProbe probe,
+            @Nonnull BooleanSupplier cancelled
+    ) {
+        this.pool = pool;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.stride = stride;
+        this.maxRing = maxRadius / stride;
+        this.order = PathfinderRingOrder.forRings(this.maxRing);
+        this.probe = probe;
+        this.cancelled = cancelled;
+    }
+
+    @Nonnull
+    public PathfinderParallelSearch onRing(@Nullable RingListener listener) {
+        this.ringListener = listener;
+        return this;
+    }
+
+    /**
+     * Skips the rings inside {@code ring}, e.g. because a coarser pass already ruled them out. Ring 0 includes the
+     * center cell, which is skipped by default because callers check the exact start position themselves.
+     */
+    @Nonnull
+    public PathfinderParallelSearch fromRing(int ring) {
+        this.firstRing = Math.max(0, ring);
+        return this;
+    }
+
+    /**
+     * Keeps walking {@code rings} more rings after the ring of the first hit, up to maxRadius / stride, and records
+     * every hit on the way; see {@link #getHits()}. {@link #run()} still returns the nearest hit.
+     */
+    @Nonnull
+    public PathfinderParallelSearch collectHits(int rings) {
+        this.collectRings = Math.max(0, rings);
+        return this;
+    }
+
+    /** Coordinates of every hit recorded by a collecting search as [x, z], in no particular order. */
+    @Nonnull
+    public List<int[]> getHits() {
+        List<int[]> hits = new ArrayList<>();
+        for (int[] indexes : this.hitIndexes) {
+            for (int index : indexes) {
+                hits.add(this.coordinatesOf(index));
+            }
+        }
+        return hits;
+    }
+
+    /** Total number of cells evaluated so far. */
+    public long getCheckedCount() {
+        return this.checked.sum();
+    }
+
+    /**
+     * Runs the search over rings 1 (or the ring set with {@link #fromRing(int)}) to maxRadius / stride.
+     * The center cell itself is only checked when starting from ring 0.
+     *
+     * @return The coordinates of the nearest hit in walk order as [x, z], or null if none was found or cancelled
+     */
+    @Nullable
+    public int[] run() {
+        int minBandCells = this.pool.getParallelism() * SECTOR_CELLS * 2;
+        int ring = this.firstRing;
+        int lastRingToWalk = this.maxRing;
+        int[] nearest = null;
+        while (ring <= lastRingToWalk) {
+            if (this.cancelled.getAsBoolean()) {
+                return null;
+            }
+
+            // Group small inner rings so every band has enough sectors to keep all workers busy
+            int lastRing = ring;
+            while (this.order.cellsWithin(lastRing) - this.order.ringStart(ring) < minBandCells && lastRing < lastRingToWalk) {
+                lastRing++;
+            }
+
+            Band band = new Band();
+            invoke(band.new SectorTask(this.order.ringStart(ring), this.order.cellsWithin(lastRing)));
+            if (this.cancelled.getAsBoolean()) {
+                return null;
+            }
+            if (this.ringListener != null) {
+                this.ringListener.onRing(lastRing * this.stride, this.checked.sum());
+            }
+            int best = band.best.get();
+            if (best != Integer.MAX_VALUE && nearest == null) {
+                nearest = this.coordinatesOf(best);
+                if (this.collectRings < 0) {
+                    return nearest;
+                }
+                int cell = this.order.cell(best);
+                int hitRing = PathfinderRingOrder.ringOf(PathfinderRingOrder.offsetX(cell), PathfinderRingOrder.offsetZ(cell));
+                lastRingToWalk = Math.min(this.maxRing, hitRing + this.collectRings);
+            }
+            ring = lastRing + 1;
+        }
+        return nearest;
+    }
+
+    @Nonnull
+    private int[] coordinatesOf(int index) {
+        int cell = this.order.cell(index);
+        return new int[]{
+                this.centerX + PathfinderRingOrder.offsetX(cell) * this.stride,
+                this.centerZ + PathfinderRingOrder.offsetZ(cell) * this.stride
+        };
+    }
+
+    private void invoke(@Nonnull ForkJoinTask<?> task) {
+        if (ForkJoinTask.getPool() == this.pool) {
+            task.invoke();
+        } else {
+            this.pool.invoke(task);
+        }
+    }
+
+    /** A group of consecutive rings. Cells are identified by their index in the shared walk order. */
+    private final class Band {
+        private final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+
+        /** Evaluates the cells with walk index [from, to), splitting into sectors of at most SECTOR_CELLS cells. */
+        private final class SectorTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            SectorTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (this.to - this.from > SECTOR_CELLS) {
+                    int mid = (this.from + this.to) >>> 1;
+                    invokeAll(new SectorTask(this.from, mid), new SectorTask(mid, this.to));
+                    return;
+                }
+                boolean collecting = collectRings >= 0;
+                if ((!collecting && this.from > best.get()) || cancelled.getAsBoolean()) {
+                    return;
+                }
+
+                int count = 0;
+                int[] hits = null;
+                int hitCount = 0;
+                for (int index = this.from; index < this.to; index++) {
+                    // A nearer hit was already found by another sector
+                    if (!collecting && index > best.get()) {
+                        break;
+                    }
+                    count++;
+                    int cell = order.cell(index);
+                    int x = centerX + PathfinderRingOrder.offsetX(cell) * stride;
+                    int z = centerZ + PathfinderRingOrder.offsetZ(cell) * stride;
+                    if (probe.matches(x, z)) {
+                        best.accumulateAndGet(index, Math::min);
+                        if (!collecting) {
+                            break;
+                        }
+                        if (hits == null) {
+                            hits = new int[this.to - this.from];
+                        }
+                        hits[hitCount++] = index;
+                    }
+                }
+                checked.add(count);
+                if (hits != null) {
+                    hitIndexes.add(Arrays.copyOf(hits, hitCount));
+                }
+            }
+        }
+    }
+}
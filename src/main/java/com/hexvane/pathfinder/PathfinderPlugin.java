@@ -1,18 +1,24 @@
 package com.hexvane.pathfinder;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.events.AddWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.events.RemoveWorldEvent;
+import com.hypixel.hytale.server.core.util.Config;
 import com.hexvane.pathfinder.gui.PathfinderPageSupplier;
 import com.hypixel.hytale.server.core.modules.interaction.interaction.config.server.OpenCustomUIInteraction;
 
 public class PathfinderPlugin extends JavaPlugin {
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private final Config<PathfinderConfig> config;
 
     public PathfinderPlugin(JavaPluginInit init) {
         super(init);
+        this.config = this.withConfig("Pathfinder", PathfinderConfig.CODEC);
         LOGGER.atInfo().log("Hello from %s version %s", this.getName(), this.getManifest().getVersion().toString());
     }
 
@@ -35,16 +41,58 @@ public class PathfinderPlugin extends JavaPlugin {
                     try {
                         event.getWorld().getWorldMapManager().addMarkerProvider("pathfinder", PathfinderMarkerProvider.INSTANCE);
                         LOGGER.atInfo().log("Registered Pathfinder marker provider for world: %s", event.getWorld().getName());
+                        PathfinderPreIndexer.addWorld(event.getWorld());
                     } catch (Exception e) {
                         LOGGER.atWarning().log("Failed to register marker provider for world %s: %s", 
                                 event.getWorld().getName(), e.getMessage());
                     }
                 }
         );
+        
+        // Stop searches that no longer have anyone waiting for them
+        this.getEventRegistry().registerGlobal(
+                RemoveWorldEvent.class,
+                (RemoveWorldEvent event) -> {
+                    PathfinderSearchExecutor.cancelWorld(event.getWorld().getName());
+                    PathfinderPreIndexer.removeWorld(event.getWorld().getName());
+                    PathfinderBiomeCache.shared().invalidate(event.getWorld().getChunkStore().getGenerator());
+                    PathfinderBiomeCatalog.invalidate(event.getWorld().getChunkStore().getGenerator());
+                    PathfinderZoneFilter.invalidate(event.getWorld().getChunkStore().getGenerator());
+                    PathfinderBiomeCatalog.invalidateWorld(event.getWorld().getName());
+                    PathfinderBiomeIndex.close(event.getWorld().getName());
+                    PathfinderMarkerPersistence.unloadWorld(event.getWorld().getName());
+                }
+        );
+        // Saved markers are read in the background so joining never waits for disk I/O
+        this.getEventRegistry().register(
+                PlayerConnectEvent.class,
+                (PlayerConnectEvent event) -> PathfinderMarkerPersistence.loadPlayer(event.getPlayerRef().getUuid())
+        );
+        this.getEventRegistry().register(
+                PlayerDisconnectEvent.class,
+                (PlayerDisconnectEvent event) -> {
+                    PathfinderSearchExecutor.cancel(event.getPlayerRef().getUuid());
+                    PathfinderSearchExecutor.forgetPlayer(event.getPlayerRef().getUuid());
+                    PathfinderMarkerPersistence.unloadPlayer(event.getPlayerRef().getUuid());
+                }
+        );
     }
 
     @Override
     protected void start() {
+        PathfinderSearchExecutor.start(this.config.get());
+        PathfinderBiomeCache.shared().setMaxTiles(this.config.get().getBiomeCacheTiles());
+        if (this.config.get().isBiomeIndexEnabled()) {
+            PathfinderBiomeIndex.start(this.getDataDirectory().resolve("biome-index"));
+        }
+        PathfinderMarkerStorage.setMaxMarkers(this.config.get().getMaxMarkersPerPlayer());
+        if (this.config.get().isMarkerPersistenceEnabled()) {
+            PathfinderMarkerPersistence.start(this.getDataDirectory().resolve("markers"));
+        }
+        if (this.config.get().isPreIndexEnabled()) {
+            PathfinderPreIndexer.start(this.config.get());
+        }
+        
         // Register marker provider for existing worlds
         // This handles worlds that were already loaded before the plugin started
         try {
@@ -57,10 +105,26 @@ public class PathfinderPlugin extends JavaPlugin {
                         worldMapManager.addMarkerProvider("pathfinder", PathfinderMarkerProvider.INSTANCE);
                         LOGGER.atInfo().log("Registered Pathfinder marker provider for world: %s", world.getName());
                     }
+                    PathfinderPreIndexer.addWorld(world);
+                    // Players who were already online when the plugin was (re)loaded
+                    for (var playerRef : world.getPlayerRefs()) {
+                        PathfinderMarkerPersistence.loadPlayer(playerRef.getUuid());
+                    }
                 }
             }
         } catch (Exception e) {
             LOGGER.atWarning().log("Failed to register marker provider: %s", e.getMessage());
         }
     }
+
+    @Override
+    protected void shutdown() {
+        PathfinderPreIndexer.shutdown();
+        PathfinderSearchExecutor.shutdown();
+        PathfinderBiomeIndex.shutdown();
+        PathfinderMarkerPersistence.shutdown();
+        PathfinderBackground.shutdown();
+        PathfinderBiomeCache.shared().clear();
+        PathfinderZoneFilter.clear();
+    }
 }
@@ -0,0 +1,347 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.vector.Transform;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.spawn.ISpawnProvider;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Background pre-indexer that samples biomes in expanding rings around the world spawn area and around online
+ * players while the search pool is idle, filling the shared biome cache and the persistent biome index.
+ * <p>
+ * Every {@value #TICK_MILLIS} ms the background thread hands one batch to the search pool, but only when no search
+ * is running. A batch may make at most {@code PreIndexSamplesPerSecond / 10} generator calls; samples that are
+ * already cached or indexed are cheap and do not count against the budget (but are capped as well). Every batch looks
+ * up the world's current {@link PathfinderBiomeLookup}, so it never writes through an index that was closed.
+ */
+public final class PathfinderPreIndexer {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    static final long TICK_MILLIS = 100;
+    /** Player positions are refreshed every 5 seconds. */
+    private static final int POSITION_REFRESH_TICKS = 50;
+    /** A player's rings restart around their new position once they moved this many blocks away. */
+    private static final int RECENTER_DISTANCE = 256;
+    /** Upper bound on cheap (cache or index) lookups per generator call allowed in a batch. */
+    private static final int LOOKUPS_PER_BUDGETED_SAMPLE = 16;
+
+    private static final Map<String, WorldIndexer> WORLDS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean BATCH_RUNNING = new AtomicBoolean();
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder GENERATOR_CALLS = new LongAdder();
+
+    private static volatile boolean started;
+    private static volatile boolean paused;
+    private static volatile int samplesPerTick;
+    private static volatile int maxRing;
+    private static long ticks;
+
+    private PathfinderPreIndexer() {
+    }
+
+    /** Starts the indexer with the configured budget. Worlds are added with {@link #addWorld(World)}. */
+    public static synchronized void start(@Nonnull PathfinderConfig config) {
+        samplesPerTick = Math.max(1, (int) (config.getPreIndexSamplesPerSecond() * TICK_MILLIS / 1000));
+        maxRing = Math.max(1, config.getPreIndexRadius() / PathfinderBiomeCache.CELL_SIZE);
+        if (started) {
+            return;
+        }
+        started = true;
+        PathfinderBackground.scheduleAtFixedRate("biome pre-indexer", PathfinderPreIndexer::tick, TICK_MILLIS);
+        LOGGER.atInfo().log("Started biome pre-indexer: %d samples per second, radius %d",
+                config.getPreIndexSamplesPerSecond(), config.getPreIndexRadius());
+    }
+
+    public static synchronized void shutdown() {
+        started = false;
+        for (WorldIndexer indexer : WORLDS.values()) {
+            indexer.removed = true;
+        }
+        WORLDS.clear();
+    }
+
+    /** Starts indexing around the spawn area and the players of a world. Ignored for unsupported generators. */
+    public static void addWorld(@Nonnull World world) {
+        if (!started) {
+            return;
+        }
+        if (PathfinderBiomeSamplers.forWorld(world) == null) {
+            return;
+        }
+        WorldIndexer previous = WORLDS.put(world.getName(), new WorldIndexer(world));
+        if (previous != null) {
+            previous.removed = true;
+        }
+    }
+
+    /** Stops indexing a world. A batch that is already running skips the world's remaining centers. */
+    public static void removeWorld(@Nonnull String worldName) {
+        WorldIndexer indexer = WORLDS.remove(worldName);
+        if (indexer != null) {
+            indexer.removed = true;
+        }
+    }
+
+    public static void pause() {
+        paused = true;
+    }
+
+    public static void resume() {
+        paused = false;
+    }
+
+    public static boolean isPaused() {
+        return paused;
+    }
+
+    public static boolean isStarted() {
+        return started;
+    }
+
+    /** Total lattice points visited by the indexer. */
+    public static long getLookups() {
+        return LOOKUPS.sum();
+    }
+
+    /** Total lattice points the indexer had to sample from a world generator. */
+    public static long getGeneratorCalls() {
+        return GENERATOR_CALLS.sum();
+    }
+
+    /** Human-readable progress of every indexed world, one line per world. */
+    @Nonnull
+    public static List<String> describeProgress() {
+        List<String> lines = new ArrayList<>();
+        for (WorldIndexer indexer : WORLDS.values()) {
+            StringBuilder line = new StringBuilder(indexer.world.getName()).append(':');
+            for (Center center : indexer.centers()) {
+                line.append(' ').append(center.label).append(' ')
+                        .append(String.format("%.0f%%", center.progress() * 100.0))
+                        .append(" (ring ").append(center.currentRing()).append('/')
+                        .append(center.maxRing).append(')');
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /** Runs on the background thread; hands a batch to the search pool when there is spare capacity. */
+    private static void tick() {
+        if (!started) {
+            return;
+        }
+        if (++ticks % POSITION_REFRESH_TICKS == 1) {
+            for (WorldIndexer indexer : WORLDS.values()) {
+                indexer.refreshPlayers();
+            }
+        }
+        if (paused || WORLDS.isEmpty() || PathfinderSearchExecutor.getRunningSearches() > 0) {
+            return;
+        }
+        if (!BATCH_RUNNING.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            PathfinderSearchExecutor.pool().execute(() -> {
+                try {
+                    int budget = Math.max(1, samplesPerTick / Math.max(1, WORLDS.size()));
+                    for (WorldIndexer indexer : WORLDS.values()) {
+                        if (paused || PathfinderSearchExecutor.getRunningSearches() > 0) {
+                            break;
+                        }
+                        indexer.run(budget);
+                    }
+                } catch (Exception e) {
+                    LOGGER.atWarning().log("Biome pre-indexer batch failed: %s", e.getMessage());
+                } finally {
+                    BATCH_RUNNING.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            BATCH_RUNNING.set(false);
+        }
+    }
+
+    private static final class WorldIndexer {
+        private final World world;
+        private final Center spawn;
+        private final Map<UUID, Center> players = new ConcurrentHashMap<>();
+        /** Set once the world is removed; its index may already be closed. */
+        private volatile boolean removed;
+
+        WorldIndexer(@Nonnull World world) {
+            this.world = world;
+            Vector3d spawnPoint = spawnPointOf(world);
+            this.spawn = spawnPoint == null
+                    ? new Center("spawn", 0, 0, maxRing)
+                    : new Center("spawn", (int) spawnPoint.getX(), (int) spawnPoint.getZ(), maxRing);
+        }
+
+        /**
+         * Reads the first spawn point of the world's spawn provider, or returns null if the world has none, in which
+         * case the spawn area is indexed around the world origin.
+         */
+        @Nullable
+        private static Vector3d spawnPointOf(@Nonnull World world) {
+            try {
+                ISpawnProvider provider = world.getWorldConfig().getSpawnProvider();
+                Transform[] points = provider == null ? null : provider.getSpawnPoints();
+                if (points == null || points.length == 0 || points[0] == null) {
+                    return null;
+                }
+                return points[0].getPosition();
+            } catch (RuntimeException e) {
+                LOGGER.atWarning().log("Failed to read the spawn point of world %s: %s", world.getName(), e.getMessage());
+                return null;
+            }
+        }
+
+        /** Players first so the area around them is known when they open the map, then the spawn area. */
+        @Nonnull
+        List<Center> centers() {
+            List<Center> centers = new ArrayList<>(this.players.values());
+            centers.add(this.spawn);
+            return centers;
+        }
+
+        void run(int budget) {
+            List<Center> pending = new ArrayList<>();
+            for (Center center : this.centers()) {
+                if (!center.isDone()) {
+                    pending.add(center);
+                }
+            }
+            if (pending.isEmpty() || this.removed) {
+                return;
+            }
+            // Looked up per batch, because the world's index is closed or replaced when the world is removed or recreated
+            PathfinderBiomeLookup lookup = PathfinderBiomeLookup.forWorld(this.world);
+            if (lookup == null) {
+                return;
+            }
+            int perCenter = Math.max(1, budget / pending.size());
+            for (Center center : pending) {
+                if (this.removed) {
+                    return;
+                }
+                center.advance(lookup, perCenter);
+                if (center.isDone()) {
+                    LOGGER.atInfo().log("Pre-indexed biomes around %s in world %s (%d rings)",
+                            center.label, this.world.getName(), center.maxRing);
+                }
+            }
+        }
+
+        /** Reads player positions on the world thread and moves their centers when they travelled far enough. */
+        void refreshPlayers() {
+            try {
+                this.world.execute(() -> {
+                    Set<UUID> online = new HashSet<>();
+                    for (PlayerRef playerRef : this.world.getPlayerRefs()) {
+                        Vector3d position = positionOf(playerRef);
+                        if (position == null) {
+                            continue;
+                        }
+                        UUID uuid = playerRef.getUuid();
+                        online.add(uuid);
+                        int x = (int) position.getX();
+                        int z = (int) position.getZ();
+                        Center current = this.players.get(uuid);
+                        if (current == null || current.distanceTo(x, z) > RECENTER_DISTANCE) {
+                            this.players.put(uuid, new Center(playerRef.getUsername(), x, z, maxRing));
+                        }
+                    }
+                    this.players.keySet().retainAll(online);
+                });
+            } catch (RejectedExecutionException e) {
+                // World is shutting down
+            }
+        }
+
+        @Nullable
+        private static Vector3d positionOf(@Nonnull PlayerRef playerRef) {
+            Ref<EntityStore> ref = playerRef.getReference();
+            if (ref == null || !ref.isValid()) {
+                return null;
+            }
+            TransformComponent transform = ref.getStore().getComponent(ref, TransformComponent.getComponentType());
+            return transform == null ? null : transform.getPosition();
+        }
+    }
+
+    /** Ring walk around one point in the shared Euclidean order. Only touched by the single running batch. */
+    private static final class Center {
+        private final String label;
+        private final int centerX;
+        private final int centerZ;
+        private final int maxRing;
+        private final PathfinderRingOrder order;
+        private final int cellCount;
+        private int index = 0;
+
+        Center(@Nonnull String label, int x, int z, int maxRing) {
+            this.label = label;
+            this.centerX = Math.floorDiv(x, PathfinderBiomeCache.CELL_SIZE) * PathfinderBiomeCache.CELL_SIZE;
+            this.centerZ = Math.floorDiv(z, PathfinderBiomeCache.CELL_SIZE) * PathfinderBiomeCache.CELL_SIZE;
+            this.maxRing = maxRing;
+            this.order = PathfinderRingOrder.forRings(maxRing);
+            this.cellCount = this.order.cellsWithin(maxRing);
+        }
+
+        boolean isDone() {
+            return this.index >= this.cellCount;
+        }
+
+        double distanceTo(int x, int z) {
+            return Math.hypot(x - this.centerX, z - this.centerZ);
+        }
+
+        double progress() {
+            return (double) this.index / this.cellCount;
+        }
+
+        /** Ring of the next cell to sample, or maxRing once done. */
+        int currentRing() {
+            if (this.isDone()) {
+                return this.maxRing;
+            }
+            int cell = this.order.cell(this.index);
+            return PathfinderRingOrder.ringOf(PathfinderRingOrder.offsetX(cell), PathfinderRingOrder.offsetZ(cell));
+        }
+
+        void advance(@Nonnull PathfinderBiomeLookup lookup, int budget) {
+            long callsBefore = lookup.getGeneratorCalls();
+            int maxLookups = budget * LOOKUPS_PER_BUDGETED_SAMPLE;
+            int lookups = 0;
+            while (!this.isDone() && lookups < maxLookups && lookup.getGeneratorCalls() - callsBefore < budget) {
+                int cell = this.order.cell(this.index++);
+                int x = this.centerX + PathfinderRingOrder.offsetX(cell) * PathfinderBiomeCache.CELL_SIZE;
+                int z = this.centerZ + PathfinderRingOrder.offsetZ(cell) * PathfinderBiomeCache.CELL_SIZE;
+                try {
+                    lookup.biomeIdAt(x, z);
+                } catch (Exception e) {
+                    LOGGER.atFine().log("Pre-indexer failed to query biome at (%d, %d): %s", x, z, e.getMessage());
+                }
+                lookups++;
+            }
+            LOOKUPS.add(lookups);
+            GENERATOR_CALLS.add(lookup.getGeneratorCalls() - callsBefore);
+        }
+    }
+}
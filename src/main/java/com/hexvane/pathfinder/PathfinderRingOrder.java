@@ -0,0 +1,126 @@
+package com.hexvane.pathfinder;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+/**
+ * Shared walk order for ring searches: every lattice offset inside a circle, sorted by Euclidean distance.
+ * <p>
+ * Ring {@code k} holds the offsets whose distance d (in cells) satisfies {@code k - 1 < d <= k}; ring 0 is the
+ * center alone. Offsets outside the circle of the largest ring are never generated, and within a ring offsets are
+ * ordered by exact squared distance, so walking the table front to back visits the nearest cells first. Because
+ * sorting by distance makes the table for a small radius a prefix of the table for a larger one, a single table is
+ * shared by every search and only rebuilt when a larger radius is requested.
+ * <p>
+ * Offsets are packed into one int each ({@link #offsetX(int)} / {@link #offsetZ(int)}), so walking the table does
+ * not allocate.
+ */
+public final class PathfinderRingOrder {
+    private static volatile PathfinderRingOrder shared = build(64);
+
+    private final int maxRing;
+    private final int[] cells;
+    private final int[] ringStart;
+
+    private PathfinderRingOrder(int maxRing, @Nonnull int[] cells, @Nonnull int[] ringStart) {
+        this.maxRing = maxRing;
+        this.cells = cells;
+        this.ringStart = ringStart;
+    }
+
+    /** Returns a table covering at least {@code maxRing} rings, building a larger shared table if needed. */
+    @Nonnull
+    public static PathfinderRingOrder forRings(int maxRing) {
+        PathfinderRingOrder current = shared;
+        if (current.maxRing >= maxRing) {
+            return current;
+        }
+        synchronized (PathfinderRingOrder.class) {
+            if (shared.maxRing < maxRing) {
+                shared = build(maxRing);
+            }
+            return shared;
+        }
+    }
+
+    @Nonnull
+    private static PathfinderRingOrder build(int maxRing) {
+        if (maxRing > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring " + maxRing + " is too large");
+        }
+        // Sort keys: squared distance in the high bits, then the packed offset as a deterministic tie-breaker
+        long limit = (long) maxRing * maxRing;
+        int count = 0;
+        long[] keys = new long[(int) Math.min(Integer.MAX_VALUE - 8, (long) (Math.PI * (maxRing + 1) * (maxRing + 1)) + 8)];
+        for (int dz = -maxRing; dz <= maxRing; dz++) {
+            for (int dx = -maxRing; dx <= maxRing; dx++) {
+                long distanceSquared = (long) dx * dx + (long) dz * dz;
+                if (distanceSquared <= limit) {
+                    keys[count++] = (distanceSquared << 32) | (pack(dx, dz) & 0xFFFFFFFFL);
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] cells = new int[count];
+        int[] ringStart = new int[maxRing + 2];
+        int ring = 0;
+        for (int i = 0; i < count; i++) {
+            long distanceSquared = keys[i] >>> 32;
+            // Advance to the ring whose outer bound includes this cell, marking the start of every ring passed
+            while ((long) ring * ring < distanceSquared) {
+                ring++;
+                ringStart[ring] = i;
+            }
+            cells[i] = (int) keys[i];
+        }
+        while (ring <= maxRing) {
+            ring++;
+            ringStart[ring] = count;
+        }
+        return new PathfinderRingOrder(maxRing, cells, ringStart);
+    }
+
+    static int pack(int dx, int dz) {
+        return (dx << 16) | (dz & 0xFFFF);
+    }
+
+    /** X offset, in cells, of a packed table entry. */
+    public static int offsetX(int packed) {
+        return packed >> 16;
+    }
+
+    /** Z offset, in cells, of a packed table entry. */
+    public static int offsetZ(int packed) {
+        return (short) packed;
+    }
+
+    /** Ring containing the offset (dx, dz), in cells: the smallest k with dx² + dz² <= k². */
+    public static int ringOf(int dx, int dz) {
+        long distanceSquared = (long) dx * dx + (long) dz * dz;
+        int ring = (int) Math.sqrt((double) distanceSquared);
+        while ((long) ring * ring < distanceSquared) {
+            ring++;
+        }
+        return ring;
+    }
+
+    public int getMaxRing() {
+        return this.maxRing;
+    }
+
+    /** Packed offset at a position in walk order. */
+    public int cell(int index) {
+        return this.cells[index];
+    }
+
+    /** Walk index of the first cell of a ring; {@code ringStart(ring + 1)} is one past its last cell. */
+    public int ringStart(int ring) {
+        return this.ringStart[ring];
+    }
+
+    /** Number of cells in rings 0 to {@code ring} inclusive. */
+    public int cellsWithin(int ring) {
+        return this.ringStart[ring + 1];
+    }
+}
@@ -0,0 +1,418 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Dedicated, bounded pool for biome searches.
+ * Searches never run on the world thread; callers hop back to the world executor only to create markers.
+ * Each player has at most one active search. Admission is controlled by {@link PathfinderSearchScheduler}: a global
+ * and a per-world limit on running scans, a bounded wait queue served round-robin between players, and a per-player
+ * rate limit. Identical searches started from nearby positions share one scan.
+ */
+public final class PathfinderSearchExecutor {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Map<UUID, PathfinderSearchHandle<?>> ACTIVE = new ConcurrentHashMap<>();
+    /** Running or queued single-biome searches that new requests for the same biome and area can attach to. */
+    private static final Map<PathfinderSearchJob.Key, PathfinderSearchJob<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final LongAdder COALESCED = new LongAdder();
+    /** Searches started within the same cell of this size share one scan. */
+    static final int COALESCE_CELL_SIZE = 128;
+    /**
+     * Diagonal of a cell. A shared scan reaches this much farther than a single search, so it covers the search
+     * radius of every player in the cell, even after their start is snapped to the sampling lattice.
+     */
+    static final int COALESCE_REACH = (int) Math.ceil(COALESCE_CELL_SIZE * Math.sqrt(2.0));
+
+    private static volatile ForkJoinPool pool;
+    private static volatile boolean shuttingDown;
+    private static volatile PathfinderSearchScheduler scheduler = createScheduler(new PathfinderConfig());
+    private static volatile boolean zonePruning = new PathfinderConfig().isZonePruningEnabled();
+    private static volatile boolean adaptiveSearch = new PathfinderConfig().isAdaptiveSearch();
+    private static volatile int coarseStride = new PathfinderConfig().getCoarseStride();
+    private static volatile int discoveryStableRings = new PathfinderConfig().getDiscoveryStableRings();
+
+    private PathfinderSearchExecutor() {
+    }
+
+    /** Creates the search pool from the plugin configuration. Called from PathfinderPlugin.start(). */
+    public static synchronized void start(@Nonnull PathfinderConfig config) {
+        scheduler = createScheduler(config);
+        shuttingDown = false;
+        zonePruning = config.isZonePruningEnabled();
+        adaptiveSearch = config.isAdaptiveSearch();
+        coarseStride = config.getCoarseStride();
+        discoveryStableRings = config.getDiscoveryStableRings();
+        if (pool == null) {
+            pool = createPool(config.getSearchThreads());
+            LOGGER.atInfo().log("Started Pathfinder search pool with %d threads, %d concurrent searches, %d per world",
+                    config.getSearchThreads(), config.getMaxConcurrentSearches(), config.getMaxSearchesPerWorld());
+        }
+    }
+
+    /** Cancels every running search and stops the pool. Called from PathfinderPlugin.shutdown(). */
+    public static synchronized void shutdown() {
+        shuttingDown = true;
+        for (PathfinderSearchHandle<?> handle : ACTIVE.values()) {
+            handle.cancel();
+        }
+        ACTIVE.clear();
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            pool = null;
+        }
+    }
+
+    @Nonnull
+    static ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (PathfinderSearchExecutor.class) {
+            if (pool == null) {
+                // Used before the plugin started; fall back to the default configuration
+                pool = createPool(new PathfinderConfig().getSearchThreads());
+            }
+            return pool;
+        }
+    }
+
+    /** Whether searches skip zones that cannot contain their target, see {@link PathfinderZoneFilter}. */
+    static boolean isZonePruningEnabled() {
+        return zonePruning;
+    }
+
+    /** Whether searches use the coarse-to-fine mode, see {@link PathfinderConfig#isAdaptiveSearch()}. */
+    static boolean isAdaptiveSearch() {
+        return adaptiveSearch;
+    }
+
+    static int getCoarseStride() {
+        return coarseStride;
+    }
+
+    /** Rings without a new biome after which discovery stops, see {@link PathfinderConfig#getDiscoveryStableRings()}. */
+    static int getDiscoveryStableRings() {
+        return discoveryStableRings;
+    }
+
+    private static PathfinderSearchScheduler createScheduler(@Nonnull PathfinderConfig config) {
+        return new PathfinderSearchScheduler(
+                config.getMaxConcurrentSearches(),
+                config.getMaxSearchesPerWorld(),
+                config.getSearchQueueSize(),
+                config.getSearchesPerMinute(),
+                PathfinderSearchExecutor::execute
+        );
+    }
+
+    private static ForkJoinPool createPool(int threads) {
+        return new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("Pathfinder-Search-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, (thread, e) -> LOGGER.atSevere().log("Uncaught error in %s: %s", thread.getName(), e.getMessage()), false);
+    }
+
+    /**
+     * Submits a biome search for a player. Once the new search is accepted, any search the player already has
+     * running is cancelled; a rejected request leaves it running.
+     * If another player already searches for the same biome in the same world from within the same
+     * {@value #COALESCE_CELL_SIZE}-block cell, the new handle attaches to that scan instead of starting another one.
+     * The shared scan runs from the cell center, and each player then gets the hit nearest their own position.
+     * If no search slot is free, the search waits in the queue; see {@link #getQueuePosition(UUID)}.
+     *
+     * @return The handle of the new search
+     * @throws PathfinderSearchRejectedException If the player is rate limited or the wait queue is full
+     */
+    @Nonnull
+    public static PathfinderSearchHandle<int[]> submit(
+            @Nonnull UUID playerId,
+            @Nonnull World world,
+            @Nonnull String biomeName,
+            int startX,
+            int startZ
+    ) throws PathfinderSearchRejectedException {
+        int cellX = Math.floorDiv(startX, COALESCE_CELL_SIZE);
+        int cellZ = Math.floorDiv(startZ, COALESCE_CELL_SIZE);
+        PathfinderSearchJob.Key key = new PathfinderSearchJob.Key(
+                world.getName(), world.getWorldConfig().getSeed(), biomeName, cellX, cellZ
+        );
+        // Scan from a point every player in the cell agrees on, so the result does not depend on who came first
+        int centerX = cellX * COALESCE_CELL_SIZE + COALESCE_CELL_SIZE / 2;
+        int centerZ = cellZ * COALESCE_CELL_SIZE + COALESCE_CELL_SIZE / 2;
+        return submit(playerId, world, biomeName, key,
+                job -> PathfinderSearchUtil.searchForBiomeHits(
+                        world, centerX, centerZ, biomeName, PathfinderSearchUtil.DEFAULT_MAX_RADIUS + COALESCE_REACH,
+                        COALESCE_REACH, job::isCancelled, job::publishProgress
+                ),
+                (List<int[]> hits) -> nearestHit(hits, startX, startZ)
+        );
+    }
+
+    /**
+     * Picks the hit nearest a player's own start from the hits of a shared scan. The scan collects every hit up to
+     * {@value #COALESCE_REACH} blocks beyond its nearest one, which includes the nearest hit of every start in the cell.
+     *
+     * @return The nearest hit, or null if it is farther from the player than a single search would reach
+     */
+    @Nullable
+    private static int[] nearestHit(@Nonnull List<int[]> hits, int startX, int startZ) {
+        int[] nearest = null;
+        long nearestDistance = (long) PathfinderSearchUtil.DEFAULT_MAX_RADIUS * PathfinderSearchUtil.DEFAULT_MAX_RADIUS;
+        for (int[] hit : hits) {
+            long dx = hit[0] - startX;
+            long dz = hit[1] - startZ;
+            long distance = dx * dx + dz * dz;
+            if (distance <= nearestDistance) {
+                nearest = hit;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Submits a search for several biomes that are resolved in one shared sweep.
+     * Once the new search is accepted, any search the player already has running is cancelled.
+     *
+     * @return The handle of the new search, completing with the nearest location of every biome (null values for
+     * biomes that were not found)
+     * @throws PathfinderSearchRejectedException If the player is rate limited or the wait queue is full
+     */
+    @Nonnull
+    public static PathfinderSearchHandle<Map<String, int[]>> submitBatch(
+            @Nonnull UUID playerId,
+            @Nonnull World world,
+            @Nonnull List<String> biomeNames,
+            int startX,
+            int startZ
+    ) throws PathfinderSearchRejectedException {
+        return submit(playerId, world, String.join(", ", biomeNames), null, job -> PathfinderSearchUtil.searchForBiomes(
+                world, startX, startZ, biomeNames, job::isCancelled, job::publishProgress
+        ), Function.identity());
+    }
+
+    /**
+     * @param search Runs the scan
+     * @param result Turns the scan result into the player's result
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static <S, T> PathfinderSearchHandle<T> submit(
+            @Nonnull UUID playerId,
+            @Nonnull World world,
+            @Nonnull String biomeName,
+            @Nullable PathfinderSearchJob.Key key,
+            @Nonnull Function<PathfinderSearchJob<S>, S> search,
+            @Nonnull Function<S, T> result
+    ) throws PathfinderSearchRejectedException {
+        String worldName = world.getName();
+        if (shuttingDown) {
+            throw new PathfinderSearchRejectedException(PathfinderSearchRejectedException.Reason.SHUTTING_DOWN,
+                    "Biome search is not available right now.");
+        }
+        PathfinderSearchScheduler current = scheduler;
+        try {
+            current.checkRate(playerId);
+        } catch (PathfinderSearchRejectedException e) {
+            LOGGER.atInfo().log("Rejected biome search for '%s' in world %s: player is rate limited", biomeName, worldName);
+            throw e;
+        }
+
+        if (key != null) {
+            PathfinderSearchJob<S> inFlight = (PathfinderSearchJob<S>) IN_FLIGHT.get(key);
+            if (inFlight != null) {
+                PathfinderSearchHandle<T> handle = attach(playerId, inFlight, result);
+                if (handle != null) {
+                    activate(playerId, handle);
+                    COALESCED.increment();
+                    LOGGER.atInfo().log("Attached biome search for '%s' in world %s to a running search (%d players)",
+                            biomeName, worldName, inFlight.getHandles().size());
+                    return handle;
+                }
+            }
+        }
+
+        PathfinderSearchJob<S>[] jobRef = new PathfinderSearchJob[1];
+        PathfinderSearchJob<S> job = new PathfinderSearchJob<>(key, worldName, biomeName, search, () -> {
+            current.release(jobRef[0]);
+            if (key != null) {
+                IN_FLIGHT.remove(key, jobRef[0]);
+            }
+        });
+        jobRef[0] = job;
+        PathfinderSearchHandle<T> handle = attach(playerId, job, result);
+        if (key != null) {
+            IN_FLIGHT.put(key, job);
+        }
+        try {
+            current.submit(playerId, job);
+        } catch (PathfinderSearchRejectedException e) {
+            if (key != null) {
+                IN_FLIGHT.remove(key, job);
+            }
+            handle.cancel();
+            LOGGER.atInfo().log("Rejected biome search for '%s' in world %s: %d searches already queued",
+                    biomeName, worldName, current.getQueueDepth());
+            throw e;
+        }
+        activate(playerId, handle);
+        if (current.getQueuePosition(playerId) > 0) {
+            LOGGER.atInfo().log("Queued biome search for '%s' in world %s (%d waiting)",
+                    biomeName, worldName, current.getQueueDepth());
+        }
+        return handle;
+    }
+
+    /** Starts a job the scheduler dispatched; cancels it if the pool no longer accepts work. */
+    private static void execute(@Nonnull PathfinderSearchJob<?> job) {
+        try {
+            pool().execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            for (PathfinderSearchHandle<?> handle : job.getHandles()) {
+                ACTIVE.remove(handle.getPlayerId(), handle);
+                handle.cancel();
+            }
+        }
+    }
+
+    /**
+     * Creates a handle for the player and attaches it to a job, or returns null if the job already finished.
+     * The handle is not the player's active search until it is passed to {@link #activate}.
+     */
+    @Nullable
+    private static <S, T> PathfinderSearchHandle<T> attach(
+            @Nonnull UUID playerId,
+            @Nonnull PathfinderSearchJob<S> job,
+            @Nonnull Function<S, T> result
+    ) {
+        PathfinderSearchHandle<T> handle = new PathfinderSearchHandle<>(
+                playerId, job.getWorldName(), job.getBiomeName(), job::onHandleReleased
+        );
+        return job.attach(handle, result) ? handle : null;
+    }
+
+    /**
+     * Makes an accepted handle the player's active search and cancels the search it replaces, which the handle then
+     * reports through {@link PathfinderSearchHandle#hasReplacedSearch()}.
+     */
+    private static void activate(@Nonnull UUID playerId, @Nonnull PathfinderSearchHandle<?> handle) {
+        PathfinderSearchHandle<?> previous = ACTIVE.put(playerId, handle);
+        if (previous != null && previous != handle) {
+            handle.markReplacedSearch();
+            previous.cancel();
+            LOGGER.atInfo().log("Cancelled biome search for '%s' in world %s",
+                    previous.getBiomeName(), previous.getWorldName());
+        }
+        // Also covers handles cancelled directly or finished before they were registered
+        handle.result().whenComplete((result, error) -> ACTIVE.remove(playerId, handle));
+    }
+
+    private static void run(@Nonnull PathfinderSearchJob<?> job) {
+        PathfinderMetrics.recordQueueTime(System.nanoTime() - job.getCreatedNanos());
+        try {
+            LOGGER.atInfo().log("Starting async biome search for '%s'", job.getBiomeName());
+            job.run();
+            LOGGER.atInfo().log("Biome search for '%s' completed for %d players%s",
+                    job.getBiomeName(), job.getHandles().size(), job.isCancelled() ? " (cancelled)" : "");
+        } catch (Exception e) {
+            LOGGER.atSevere().log("Error during biome search: %s", e.getMessage());
+            e.printStackTrace();
+        } finally {
+            for (PathfinderSearchHandle<?> handle : job.getHandles()) {
+                ACTIVE.remove(handle.getPlayerId(), handle);
+            }
+        }
+    }
+
+    /**
+     * Cancels the active search of a player, e.g. when they disconnect or start a new search.
+     *
+     * @return true if a search was running and has been cancelled
+     */
+    public static boolean cancel(@Nonnull UUID playerId) {
+        PathfinderSearchHandle<?> handle = ACTIVE.remove(playerId);
+        if (handle == null) {
+            return false;
+        }
+        handle.cancel();
+        LOGGER.atInfo().log("Cancelled biome search for '%s' in world %s", handle.getBiomeName(), handle.getWorldName());
+        return true;
+    }
+
+    /** Cancels every search running in a world, e.g. when the world is removed. */
+    public static void cancelWorld(@Nonnull String worldName) {
+        for (PathfinderSearchHandle<?> handle : ACTIVE.values()) {
+            if (handle.getWorldName().equals(worldName)) {
+                cancel(handle.getPlayerId());
+            }
+        }
+    }
+
+    @Nullable
+    public static PathfinderSearchHandle<?> getActiveSearch(@Nonnull UUID playerId) {
+        return ACTIVE.get(playerId);
+    }
+
+    public static int getRunningSearches(@Nonnull String worldName) {
+        return scheduler.getRunning(worldName);
+    }
+
+    /** Number of searches currently running across all worlds. */
+    public static int getRunningSearches() {
+        return scheduler.getRunning();
+    }
+
+    /** Number of searches waiting for a free search slot. */
+    public static int getQueuedSearches() {
+        return scheduler.getQueueDepth();
+    }
+
+    /** Total number of searches that had to wait in the queue before they could start. */
+    public static long getTotalQueuedSearches() {
+        return scheduler.getQueuedTotal();
+    }
+
+    /** Position of the player's search in the wait queue, starting at 1, or 0 if it is not waiting. */
+    public static int getQueuePosition(@Nonnull UUID playerId) {
+        return scheduler.getQueuePosition(playerId);
+    }
+
+    /** Number of search requests rejected for the given reason since the plugin started. */
+    public static long getRejectedSearches(@Nonnull PathfinderSearchRejectedException.Reason reason) {
+        return scheduler.getRejections(reason);
+    }
+
+    /** Forgets the rate limit state of a player, e.g. when they disconnect. */
+    public static void forgetPlayer(@Nonnull UUID playerId) {
+        scheduler.forgetPlayer(playerId);
+    }
+
+    /** Number of search requests that attached to an already running scan instead of starting their own. */
+    public static long getCoalescedSearches() {
+        return COALESCED.sum();
+    }
+}
@@ -0,0 +1,126 @@
+package com.hexvane.pathfinder;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A biome search submitted to {@link PathfinderSearchExecutor}.
+ * The result future completes with the search result, e.g. the found coordinates as [x, z] or null when the biome
+ * was not found, or is cancelled when the search is cancelled.
+ *
+ * @param <T> Type of the search result
+ */
+public final class PathfinderSearchHandle<T> {
+    private final UUID playerId;
+    private final String worldName;
+    private final String biomeName;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final Runnable releaseAction;
+    private volatile boolean cancelled;
+    private volatile boolean replacedSearch;
+    @Nullable
+    private volatile PathfinderSearchProgress progress;
+    @Nullable
+    private volatile Consumer<PathfinderSearchProgress> progressListener;
+
+    /**
+     * @param releaseAction Detaches the handle from its scan; run once, when it completes or is cancelled
+     */
+    PathfinderSearchHandle(
+            @Nonnull UUID playerId,
+            @Nonnull String worldName,
+            @Nonnull String biomeName,
+            @Nonnull Runnable releaseAction
+    ) {
+        this.playerId = playerId;
+        this.worldName = worldName;
+        this.biomeName = biomeName;
+        this.releaseAction = releaseAction;
+    }
+
+    @Nonnull
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+
+    @Nonnull
+    public String getWorldName() {
+        return this.worldName;
+    }
+
+    /** The biome searched for; for batch searches a comma-separated list of biomes. */
+    @Nonnull
+    public String getBiomeName() {
+        return this.biomeName;
+    }
+
+    @Nonnull
+    public CompletableFuture<T> result() {
+        return this.result;
+    }
+
+    /** The latest progress of the search, or null before the first ring has been searched. */
+    @Nullable
+    public PathfinderSearchProgress getProgress() {
+        return this.progress;
+    }
+
+    /**
+     * Sets the listener that receives every progress update. It is called on a search thread and must not block;
+     * pass null to stop receiving updates.
+     */
+    public void onProgress(@Nullable Consumer<PathfinderSearchProgress> listener) {
+        this.progressListener = listener;
+    }
+
+    void publishProgress(@Nonnull PathfinderSearchProgress progress) {
+        this.progress = progress;
+        Consumer<PathfinderSearchProgress> listener = this.progressListener;
+        if (listener != null && !this.cancelled) {
+            listener.accept(progress);
+        }
+    }
+
+    /** True if accepting this search cancelled a search the player already had running. */
+    public boolean hasReplacedSearch() {
+        return this.replacedSearch;
+    }
+
+    void markReplacedSearch() {
+        this.replacedSearch = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Cancels the search. The scan stops at its next cancellation check and the result future is cancelled,
+     * so callbacks chained with thenAccept are skipped.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.result.cancel(false);
+        this.release();
+    }
+
+    void complete(@Nullable T value) {
+        this.result.complete(value);
+        this.release();
+    }
+
+    /**
+     * Detaches this handle from its scan, which is cancelled once no handle is left waiting for it and then frees
+     * its search slot. Safe to call more than once.
+     */
+    void release() {
+        if (this.released.compareAndSet(false, true)) {
+            this.releaseAction.run();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.hexvane.pathfinder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * One scan on the search pool, shared by every player handle attached to it.
+ * <p>
+ * Players asking for the same biome from the same area attach their own {@link PathfinderSearchHandle} to a
+ * running job instead of starting another scan. The job is cancelled only once every attached handle has been
+ * cancelled, and its result is delivered to all handles that are still attached. A shared scan runs from a point
+ * that is the same for every player who can attach, and each handle turns the scan's result into its own player's
+ * result when it attaches.
+ *
+ * @param <S> Type of the scan result
+ */
+final class PathfinderSearchJob<S> {
+    /** Identifies searches that can share one scan. */
+    record Key(@Nonnull String worldName, long seed, @Nonnull String biomeName, int cellX, int cellZ) {
+    }
+
+    @Nullable
+    private final Key key;
+    private final String worldName;
+    private final String biomeName;
+    private final Function<PathfinderSearchJob<S>, S> search;
+    private final Runnable releaseAction;
+    private final List<PathfinderSearchHandle<?>> handles = new CopyOnWriteArrayList<>();
+    private final List<Attachment<S, ?>> attachments = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final long createdNanos = System.nanoTime();
+    private boolean finished;
+
+    /**
+     * @param key Key other searches can attach with, or null if the job cannot be shared
+     * @param search Runs the scan; reads cancellation and publishes progress through the job
+     * @param releaseAction Frees the resources held by the job; run once, when it finishes or is cancelled
+     */
+    PathfinderSearchJob(
+            @Nullable Key key,
+            @Nonnull String worldName,
+            @Nonnull String biomeName,
+            @Nonnull Function<PathfinderSearchJob<S>, S> search,
+            @Nonnull Runnable releaseAction
+    ) {
+        this.key = key;
+        this.worldName = worldName;
+        this.biomeName = biomeName;
+        this.search = search;
+        this.releaseAction = releaseAction;
+    }
+
+    @Nullable
+    Key getKey() {
+        return this.key;
+    }
+
+    @Nonnull
+    String getWorldName() {
+        return this.worldName;
+    }
+
+    @Nonnull
+    String getBiomeName() {
+        return this.biomeName;
+    }
+
+    /** System.nanoTime() when the job was submitted. */
+    long getCreatedNanos() {
+        return this.createdNanos;
+    }
+
+    @Nonnull
+    List<PathfinderSearchHandle<?>> getHandles() {
+        return this.handles;
+    }
+
+    /**
+     * Attaches a player's handle to the job.
+     *
+     * @param result Turns the scan result into the player's result; called on the search thread
+     * @return false if the job already finished or was cancelled and the handle was not attached
+     */
+    synchronized <T> boolean attach(@Nonnull PathfinderSearchHandle<T> handle, @Nonnull Function<S, T> result) {
+        if (this.finished) {
+            return false;
+        }
+        this.attachments.add(new Attachment<>(handle, result));
+        this.handles.add(handle);
+        return true;
+    }
+
+    /** True once every attached handle has been cancelled. */
+    boolean isCancelled() {
+        for (PathfinderSearchHandle<?> handle : this.handles) {
+            if (!handle.isCancelled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void publishProgress(@Nonnull PathfinderSearchProgress progress) {
+        for (PathfinderSearchHandle<?> handle : this.handles) {
+            handle.publishProgress(progress);
+        }
+    }
+
+    /** Runs the scan and completes every attached handle with its result. */
+    void run() {
+        S result = null;
+        try {
+            if (!this.isCancelled()) {
+                result = this.search.apply(this);
+            }
+        } finally {
+            synchronized (this) {
+                this.finished = true;
+            }
+            try {
+                for (Attachment<S, ?> attachment : this.attachments) {
+                    attachment.complete(result);
+                }
+            } finally {
+                this.release();
+            }
+        }
+    }
+
+    /** Called when an attached handle is released; cancels the job once no handle is waiting for it. */
+    void onHandleReleased() {
+        synchronized (this) {
+            if (this.finished || !this.isCancelled()) {
+                return;
+            }
+            this.finished = true;
+        }
+        this.release();
+    }
+
+    private void release() {
+        if (this.released.compareAndSet(false, true)) {
+            this.releaseAction.run();
+        }
+    }
+
+    private record Attachment<S, T>(@Nonnull PathfinderSearchHandle<T> handle, @Nonnull Function<S, T> result) {
+        void complete(@Nullable S scanResult) {
+            this.handle.complete(scanResult != null ? this.result.apply(scanResult) : null);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hexvane.pathfinder;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Snapshot of a running search, published by {@link PathfinderSearchHandle} after every finished band of rings.
+ * The estimate assumes the cost of a ring grows with its radius, i.e. the total cost with the searched area.
+ */
+public final class PathfinderSearchProgress {
+    private final int radius;
+    private final int maxRadius;
+    private final long checkedCount;
+    private final long elapsedMillis;
+
+    public PathfinderSearchProgress(int radius, int maxRadius, long checkedCount, long elapsedMillis) {
+        this.radius = radius;
+        this.maxRadius = maxRadius;
+        this.checkedCount = checkedCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /** Radius in blocks searched so far. */
+    public int getRadius() {
+        return this.radius;
+    }
+
+    public int getMaxRadius() {
+        return this.maxRadius;
+    }
+
+    /** Number of coordinates sampled so far. */
+    public long getCheckedCount() {
+        return this.checkedCount;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /** Searched fraction of the full search area, from 0 to 1. */
+    public double getFraction() {
+        if (this.maxRadius <= 0) {
+            return 1.0;
+        }
+        double ratio = Math.min(1.0, (double) this.radius / this.maxRadius);
+        return ratio * ratio;
+    }
+
+    /** Estimated time in milliseconds until the full search radius is covered, or -1 if unknown yet. */
+    public long getEstimatedRemainingMillis() {
+        double fraction = this.getFraction();
+        if (fraction <= 0.0) {
+            return -1;
+        }
+        return (long) (this.elapsedMillis * (1.0 - fraction) / fraction);
+    }
+
+    /** Short human-readable summary, e.g. "Radius 1200/5000 blocks, 5.8% searched, 22,345 samples, ~40s left". */
+    @Nonnull
+    public String describe() {
+        StringBuilder text = new StringBuilder()
+                .append("Radius ").append(this.radius).append('/').append(this.maxRadius).append(" blocks, ")
+                .append(String.format("%.1f%%", this.getFraction() * 100.0)).append(" searched, ")
+                .append(String.format("%,d", this.checkedCount)).append(" samples");
+        long remaining = this.getEstimatedRemainingMillis();
+        if (remaining >= 0) {
+            text.append(", ~").append(Math.max(1, (remaining + 999) / 1000)).append("s left");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hexvane.pathfinder;
+
+import javax.annotation.Nonnull;
+
+/** Thrown by {@link PathfinderSearchExecutor} when a search request is not admitted. */
+public class PathfinderSearchRejectedException extends Exception {
+    public enum Reason {
+        /** The player started too many searches within the last minute. */
+        RATE_LIMITED,
+        /** All search slots are busy and the wait queue is full. */
+        QUEUE_FULL,
+        /** The search pool is shutting down. */
+        SHUTTING_DOWN
+    }
+
+    private final Reason reason;
+
+    public PathfinderSearchRejectedException(@Nonnull Reason reason, @Nonnull String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    @Nonnull
+    public Reason getReason() {
+        return this.reason;
+    }
+}
@@ -0,0 +1,233 @@
+package com.hexvane.pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Admission control for {@link PathfinderSearchExecutor}.
+ * <ul>
+ *   <li>At most {@code maxConcurrent} scans run at once, and at most {@code maxPerWorld} in a single world.</li>
+ *   <li>Further scans wait in a queue of at most {@code queueCapacity} entries; requests beyond that are rejected.</li>
+ *   <li>Every player may start {@code searchesPerMinute} searches per minute (token bucket with that burst size).</li>
+ *   <li>Waiting scans are dispatched round-robin between players, preferring players with fewer running scans,
+ *   so one player cannot starve the others.</li>
+ * </ul>
+ * All methods are synchronized; the state is tiny and only touched when a search starts or ends.
+ */
+final class PathfinderSearchScheduler {
+    private static final long MINUTE_NANOS = 60_000_000_000L;
+
+    private final int maxConcurrent;
+    private final int maxPerWorld;
+    private final int queueCapacity;
+    private final int searchesPerMinute;
+    private final Consumer<PathfinderSearchJob<?>> starter;
+
+    /** Players with waiting scans, in turn order. */
+    private final ArrayDeque<UUID> turns = new ArrayDeque<>();
+    private final Map<UUID, ArrayDeque<PathfinderSearchJob<?>>> queued = new HashMap<>();
+    private final Map<PathfinderSearchJob<?>, UUID> queuedOwners = new IdentityHashMap<>();
+    /** Running jobs and the player that submitted them. */
+    private final Map<PathfinderSearchJob<?>, UUID> running = new IdentityHashMap<>();
+    private final Map<String, Integer> runningPerWorld = new HashMap<>();
+    private final Map<UUID, Integer> runningPerPlayer = new HashMap<>();
+    private final Map<UUID, RateBucket> buckets = new HashMap<>();
+    private final Map<PathfinderSearchRejectedException.Reason, Long> rejections =
+            new EnumMap<>(PathfinderSearchRejectedException.Reason.class);
+    private long queuedTotal;
+
+    /**
+     * @param starter Submits a dispatched job to the search pool; called while holding the scheduler lock
+     */
+    PathfinderSearchScheduler(
+            int maxConcurrent,
+            int maxPerWorld,
+            int queueCapacity,
+            int searchesPerMinute,
+            @Nonnull Consumer<PathfinderSearchJob<?>> starter
+    ) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerWorld = maxPerWorld;
+        this.queueCapacity = queueCapacity;
+        this.searchesPerMinute = searchesPerMinute;
+        this.starter = starter;
+    }
+
+    /** Takes one token from the player's rate bucket. */
+    synchronized void checkRate(@Nonnull UUID playerId) throws PathfinderSearchRejectedException {
+        RateBucket bucket = this.buckets.computeIfAbsent(playerId, k -> new RateBucket(this.searchesPerMinute));
+        if (!bucket.tryTake(this.searchesPerMinute, System.nanoTime())) {
+            throw this.reject(PathfinderSearchRejectedException.Reason.RATE_LIMITED,
+                    "You can start at most " + this.searchesPerMinute + " biome searches per minute. Please wait a moment.");
+        }
+    }
+
+    /**
+     * Starts a job right away if there is capacity, otherwise queues it behind the jobs of other players. A job
+     * rejected because the queue is full gives back the rate token its player took in {@link #checkRate(UUID)}.
+     */
+    synchronized void submit(@Nonnull UUID playerId, @Nonnull PathfinderSearchJob<?> job) throws PathfinderSearchRejectedException {
+        ArrayDeque<PathfinderSearchJob<?>> jobs = this.queued.computeIfAbsent(playerId, k -> new ArrayDeque<>());
+        if (jobs.isEmpty()) {
+            this.turns.addLast(playerId);
+        }
+        jobs.addLast(job);
+        this.queuedOwners.put(job, playerId);
+        this.dispatch();
+        if (!this.queuedOwners.containsKey(job)) {
+            return;
+        }
+        if (this.queuedOwners.size() > this.queueCapacity) {
+            this.dequeue(job);
+            RateBucket bucket = this.buckets.get(playerId);
+            if (bucket != null) {
+                bucket.refund(this.searchesPerMinute);
+            }
+            throw this.reject(PathfinderSearchRejectedException.Reason.QUEUE_FULL,
+                    "Too many biome searches are waiting. Please try again shortly.");
+        }
+        this.queuedTotal++;
+    }
+
+    /** Frees the slot of a finished job, or removes a cancelled job from the queue, and dispatches waiting jobs. */
+    synchronized void release(@Nonnull PathfinderSearchJob<?> job) {
+        UUID owner = this.running.remove(job);
+        if (owner != null) {
+            this.runningPerWorld.merge(job.getWorldName(), -1, Integer::sum);
+            this.runningPerPlayer.merge(owner, -1, (a, b) -> a + b == 0 ? null : a + b);
+        } else {
+            this.dequeue(job);
+        }
+        this.dispatch();
+    }
+
+    private void dequeue(@Nonnull PathfinderSearchJob<?> job) {
+        UUID owner = this.queuedOwners.remove(job);
+        if (owner == null) {
+            return;
+        }
+        ArrayDeque<PathfinderSearchJob<?>> jobs = this.queued.get(owner);
+        jobs.remove(job);
+        if (jobs.isEmpty()) {
+            this.queued.remove(owner);
+            this.turns.remove(owner);
+        }
+    }
+
+    /** Forgets the rate bucket of a player, e.g. when they disconnect. */
+    synchronized void forgetPlayer(@Nonnull UUID playerId) {
+        this.buckets.remove(playerId);
+    }
+
+    /**
+     * Starts waiting jobs while slots are free. Each slot goes to the waiting player with the fewest running scans,
+     * ties broken by turn order; a player who was served moves to the back of the turn order.
+     */
+    private void dispatch() {
+        while (this.running.size() < this.maxConcurrent) {
+            UUID chosenPlayer = null;
+            PathfinderSearchJob<?> chosen = null;
+            int fewestRunning = Integer.MAX_VALUE;
+            for (UUID playerId : this.turns) {
+                int playerRunning = this.runningPerPlayer.getOrDefault(playerId, 0);
+                if (playerRunning >= fewestRunning) {
+                    continue;
+                }
+                for (PathfinderSearchJob<?> job : this.queued.get(playerId)) {
+                    if (this.getRunning(job.getWorldName()) < this.maxPerWorld) {
+                        chosenPlayer = playerId;
+                        chosen = job;
+                        fewestRunning = playerRunning;
+                        break;
+                    }
+                }
+            }
+            if (chosen == null) {
+                return;
+            }
+            this.dequeue(chosen);
+            this.turns.remove(chosenPlayer);
+            if (this.queued.containsKey(chosenPlayer)) {
+                this.turns.addLast(chosenPlayer);
+            }
+            this.running.put(chosen, chosenPlayer);
+            this.runningPerWorld.merge(chosen.getWorldName(), 1, Integer::sum);
+            this.runningPerPlayer.merge(chosenPlayer, 1, Integer::sum);
+            this.starter.accept(chosen);
+        }
+    }
+
+    @Nonnull
+    private PathfinderSearchRejectedException reject(
+            @Nonnull PathfinderSearchRejectedException.Reason reason,
+            @Nonnull String message
+    ) {
+        this.rejections.merge(reason, 1L, Long::sum);
+        return new PathfinderSearchRejectedException(reason, message);
+    }
+
+    synchronized int getRunning() {
+        return this.running.size();
+    }
+
+    synchronized int getRunning(@Nonnull String worldName) {
+        return this.runningPerWorld.getOrDefault(worldName, 0);
+    }
+
+    synchronized int getQueueDepth() {
+        return this.queuedOwners.size();
+    }
+
+    /** Number of jobs that had to wait in the queue before they could start. */
+    synchronized long getQueuedTotal() {
+        return this.queuedTotal;
+    }
+
+    synchronized long getRejections(@Nonnull PathfinderSearchRejectedException.Reason reason) {
+        return this.rejections.getOrDefault(reason, 0L);
+    }
+
+    /**
+     * Position of the player's first waiting job in turn order, starting at 1, or 0 if the player has no waiting job.
+     */
+    synchronized int getQueuePosition(@Nonnull UUID playerId) {
+        int position = 1;
+        for (UUID turn : this.turns) {
+            if (turn.equals(playerId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    /** Token bucket refilled continuously at searchesPerMinute tokens per minute. */
+    private static final class RateBucket {
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        RateBucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        boolean tryTake(int perMinute, long now) {
+            this.tokens = Math.min(perMinute, this.tokens + (double) (now - this.lastRefill) * perMinute / MINUTE_NANOS);
+            this.lastRefill = now;
+            if (this.tokens < 1.0) {
+                return false;
+            }
+            this.tokens -= 1.0;
+            return true;
+        }
+
+        void refund(int perMinute) {
+            this.tokens = Math.min(perMinute, this.tokens + 1.0);
+        }
+    }
+}
@@ -8,29 +8,39 @@ import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class PathfinderSearchService {
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
     private static final Message MESSAGE_BIOME_NOT_FOUND = Message.raw("Biome not found within search radius.");
     private static final Message MESSAGE_BIOME_FOUND = Message.raw("Biome found! Marker placed on map.");
+    static final Message MESSAGE_PREVIOUS_SEARCH_CANCELLED = Message.raw("Your previous biome search was cancelled.");
 
     /**
      * Performs a biome search and creates a marker if found.
      * 
      * @param store The entity store
      * @param ref The player entity reference
+     * @param playerRef The player starting the search; a search they already have running is cancelled
      * @param world The world to search in
      * @param biomeName The biome to search for
      * @param messageCallback Callback to send messages to the player (can be null)
+     * @return The handle of the running search for progress and cancellation, or null if it could not be started
      */
-    public static void searchForBiome(
+    @Nullable
+    public static PathfinderSearchHandle<int[]> searchForBiome(
             @Nonnull Store<EntityStore> store,
             @Nonnull Ref<EntityStore> ref,
+            @Nonnull PlayerRef playerRef,
             @Nonnull World world,
             @Nonnull String biomeName,
             @Nonnull Consumer<Message> messageCallback
@@ -39,26 +49,27 @@ public class PathfinderSearchService {
         TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
         if (transform == null) {
             messageCallback.accept(Message.raw("Unable to get player position."));
-            return;
+            return null;
         }
 
         Vector3d position = transform.getPosition();
         int startX = (int)position.getX();
         int startZ = (int)position.getZ();
 
-        // Perform search asynchronously
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                LOGGER.atInfo().log("Starting async biome search for '%s'", biomeName);
-                int[] result = PathfinderSearchUtil.searchForBiome(world, startX, startZ, biomeName);
-                LOGGER.atInfo().log("Biome search completed, result: %s", result != null ? "found" : "not found");
-                return result;
-            } catch (Exception e) {
-                LOGGER.atSevere().log("Error during biome search: %s", e.getMessage());
-                e.printStackTrace();
-                return null;
-            }
-        }, world).thenAcceptAsync(result -> {
+        // Perform search on the dedicated search pool; only marker creation runs on the world thread
+        PathfinderSearchHandle<int[]> handle;
+        try {
+            handle = PathfinderSearchExecutor.submit(playerRef.getUuid(), world, biomeName, startX, startZ);
+        } catch (PathfinderSearchRejectedException e) {
+            messageCallback.accept(Message.raw(e.getMessage()));
+            return null;
+        }
+        if (handle.hasReplacedSearch()) {
+            messageCallback.accept(MESSAGE_PREVIOUS_SEARCH_CANCELLED);
+        }
+        notifyQueued(playerRef.getUuid(), messageCallback);
+
+        handle.result().thenAcceptAsync(result -> {
             try {
                 if (result == null) {
                     messageCallback.accept(MESSAGE_BIOME_NOT_FOUND);
@@ -76,14 +87,7 @@ public class PathfinderSearchService {
                     return;
                 }
 
-                String markerId = "pathfinder_" + biomeName + "_" + System.currentTimeMillis();
-                MapMarker marker = PathfinderMarkerFactory.create(
-                        markerId,
-                        biomeName,
-                        "Coordinate.png",
-                        targetX, 128.0, targetZ
-                );
-                PathfinderMarkerStorage.addMarker(world.getName(), playerComponent, marker);
+                placeMarker(world, playerComponent, biomeName, targetX, targetZ);
 
                 // Send confirmation
                 messageCallback.accept(MESSAGE_BIOME_FOUND);
@@ -95,5 +99,101 @@ public class PathfinderSearchService {
                 messageCallback.accept(Message.raw("Error creating marker: " + e.getMessage()));
             }
         }, world);
+        return handle;
+    }
+
+    /**
+     * Searches for several biomes in one shared sweep and places a marker for every biome that was found.
+     *
+     * @param biomeNames The biomes to search for
+     * @see #searchForBiome for the remaining parameters
+     */
+    public static void searchForBiomes(
+            @Nonnull Store<EntityStore> store,
+            @Nonnull Ref<EntityStore> ref,
+            @Nonnull PlayerRef playerRef,
+            @Nonnull World world,
+            @Nonnull List<String> biomeNames,
+            @Nonnull Consumer<Message> messageCallback
+    ) {
+        TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
+        if (transform == null) {
+            messageCallback.accept(Message.raw("Unable to get player position."));
+            return;
+        }
+
+        Vector3d position = transform.getPosition();
+        int startX = (int)position.getX();
+        int startZ = (int)position.getZ();
+
+        PathfinderSearchHandle<Map<String, int[]>> handle;
+        try {
+            handle = PathfinderSearchExecutor.submitBatch(playerRef.getUuid(), world, biomeNames, startX, startZ);
+        } catch (PathfinderSearchRejectedException e) {
+            messageCallback.accept(Message.raw(e.getMessage()));
+            return;
+        }
+        if (handle.hasReplacedSearch()) {
+            messageCallback.accept(MESSAGE_PREVIOUS_SEARCH_CANCELLED);
+        }
+        notifyQueued(playerRef.getUuid(), messageCallback);
+        messageCallback.accept(Message.raw("Searching for " + biomeNames.size() + " biomes..."));
+
+        handle.result().thenAcceptAsync(results -> {
+            try {
+                if (results == null) {
+                    messageCallback.accept(MESSAGE_BIOME_NOT_FOUND);
+                    return;
+                }
+                Player playerComponent = store.getComponent(ref, Player.getComponentType());
+                if (playerComponent == null) {
+                    messageCallback.accept(Message.raw("Unable to get player component."));
+                    return;
+                }
+
+                List<String> missing = new ArrayList<>();
+                int found = 0;
+                for (Map.Entry<String, int[]> entry : results.entrySet()) {
+                    int[] result = entry.getValue();
+                    if (result == null) {
+                        missing.add(entry.getKey());
+                        continue;
+                    }
+                    found++;
+                    placeMarker(world, playerComponent, entry.getKey(), result[0], result[1]);
+                    double distance = Math.sqrt(Math.pow(result[0] - startX, 2) + Math.pow(result[1] - startZ, 2));
+                    messageCallback.accept(Message.raw("  " + entry.getKey() + ": (" + result[0] + ", " + result[1] + "), "
+                            + String.format("%.1f", distance) + " blocks away"));
+                }
+                messageCallback.accept(Message.raw("Placed markers for " + found + " of " + results.size() + " biomes."));
+                if (!missing.isEmpty()) {
+                    messageCallback.accept(Message.raw("Not found within search radius: " + String.join(", ", missing)));
+                }
+            } catch (Exception e) {
+                LOGGER.atSevere().log("Error in marker creation callback: %s", e.getMessage());
+                e.printStackTrace();
+                messageCallback.accept(Message.raw("Error creating marker: " + e.getMessage()));
+            }
+        }, world);
+    }
+
+    /** Tells the player their search is waiting for a free search slot, if it is. */
+    static void notifyQueued(@Nonnull UUID playerId, @Nonnull Consumer<Message> messageCallback) {
+        int position = PathfinderSearchExecutor.getQueuePosition(playerId);
+        if (position > 0) {
+            messageCallback.accept(Message.raw("All search slots are busy. Your search is queued at position " + position + "."));
+        }
+    }
+
+    /** Creates a pathfinder marker for a found biome. Must run on the world thread. */
+    static void placeMarker(@Nonnull World world, @Nonnull Player playerComponent, @Nonnull String biomeName, int x, int z) {
+        String markerId = "pathfinder_" + biomeName + "_" + System.currentTimeMillis();
+        MapMarker marker = PathfinderMarkerFactory.create(
+                markerId,
+                biomeName,
+                "Coordinate.png",
+                x, 128.0, z
+        );
+        PathfinderMarkerStorage.addMarker(world.getName(), playerComponent, marker);
     }
 }
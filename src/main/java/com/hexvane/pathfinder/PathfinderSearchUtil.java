@@ -2,26 +2,46 @@ package com.hexvane.pathfinder;
 
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.universe.world.World;
-import com.hypixel.hytale.server.core.universe.world.worldgen.IWorldGen;
-import com.hypixel.hytale.server.worldgen.biome.Biome;
-import com.hypixel.hytale.server.worldgen.chunk.ChunkGenerator;
-import com.hypixel.hytale.server.worldgen.chunk.ZoneBiomeResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class PathfinderSearchUtil {
+    /** Bulk sampling function with the contract of {@link PathfinderBiomeSampler#sampleGrid}. */
+    @FunctionalInterface
+    public interface GridSampler {
+        void sampleGrid(int x0, int z0, int stride, int width, int height, @Nonnull int[] out);
+    }
+
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
-    private static final int DEFAULT_MAX_RADIUS = 5000;
+    static final int DEFAULT_MAX_RADIUS = 5000;
+    /** Distance in blocks between two sampled coordinates, and between two search rings. */
+    private static final int SEARCH_STRIDE = PathfinderBiomeCache.CELL_SIZE;
+    /** Distance in blocks between two samples of the discovery fallback. */
+    private static final int DISCOVERY_STRIDE = 64;
+    
+    /** Rounds a block coordinate down to the sampling lattice so samples line up with the cache cells. */
+    private static int snapToLattice(int coordinate, int stride) {
+        return Math.floorDiv(coordinate, stride) * stride;
+    }
     
     /**
      * Searches for a biome starting from the given position using a spiral search pattern.
+     * Ring sectors are sampled in parallel on the search pool; the result is the same coordinate
+     * a single-threaded walk of the rings would find first. With the adaptive search mode a coarse lattice is
+     * swept first and the result is refined to the biome boundary instead.
      * 
      * @param world The world to search in
      * @param startX Starting X coordinate
      * @param startZ Starting Z coordinate
      * @param targetBiomeName The name of the biome to search for (case-sensitive)
      * @param maxRadius Maximum search radius in blocks (default: 5000)
-     * @return The coordinates of the found biome as [x, z], or null if not found
+     * @param cancelled Checked before every ring; the search stops and returns null once it reports true
+     * @param progressListener Receives the search progress after every band of rings (can be null)
+     * @return The coordinates of the found biome as [x, z], or null if not found or cancelled
      */
     @Nullable
     public static int[] searchForBiome(
@@ -29,78 +49,191 @@ public class PathfinderSearchUtil {
             int startX,
             int startZ,
             @Nonnull String targetBiomeName,
-            int maxRadius
+            int maxRadius,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
     ) {
-        IWorldGen worldGen = world.getChunkStore().getGenerator();
-        LOGGER.atInfo().log("World generator type: %s", worldGen.getClass().getName());
-        
-        if (!(worldGen instanceof ChunkGenerator generator)) {
-            LOGGER.atWarning().log("World generator is not ChunkGenerator (v1), it is: %s", worldGen.getClass().getName());
+        return search(world, startX, startZ, targetBiomeName, maxRadius, -1, null, cancelled, progressListener);
+    }
+
+    /**
+     * Searches for a biome around a point shared by several players and returns every hit up to {@code reach}
+     * blocks farther out than the nearest one, so each player can pick the hit nearest their own position without
+     * another search. The center is sampled on the lattice like every other point.
+     *
+     * @param reach How much farther than the nearest hit to keep collecting hits, in blocks
+     * @return The coordinates of the hits as [x, z] in no particular order; empty if none was found or cancelled
+     */
+    @Nonnull
+    public static List<int[]> searchForBiomeHits(
+            @Nonnull World world,
+            int centerX,
+            int centerZ,
+            @Nonnull String targetBiomeName,
+            int maxRadius,
+            int reach,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
+    ) {
+        List<int[]> hits = new ArrayList<>();
+        search(world, centerX, centerZ, targetBiomeName, maxRadius, reach, hits, cancelled, progressListener);
+        return hits;
+    }
+
+    /**
+     * Runs a single-biome search.
+     *
+     * @param collectReach Reach to collect hits in, see {@link #searchForBiomeHits}, or -1 to stop at the first hit
+     * and check the exact start position first
+     * @param hits Receives the collected hits; only used when collecting
+     * @return The nearest hit as [x, z], or null if not found or cancelled
+     */
+    @Nullable
+    private static int[] search(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull String targetBiomeName,
+            int maxRadius,
+            int collectReach,
+            @Nullable List<int[]> hits,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
+    ) {
+        boolean collecting = collectReach >= 0;
+        // Resolve the name once; samples are then compared by biome ID
+        PathfinderBiomeLookup lookup = PathfinderBiomeLookup.forWorld(world);
+        if (lookup == null) {
+            LOGGER.atWarning().log("No biome sampler for world generator %s",
+                    world.getChunkStore().getGenerator().getClass().getName());
             return null;
         }
-        
-        int seed = (int)world.getWorldConfig().getSeed();
         LOGGER.atInfo().log("Starting biome search: target='%s', start=(%d, %d), seed=%d, maxRadius=%d", 
-                targetBiomeName, startX, startZ, seed, maxRadius);
+                targetBiomeName, startX, startZ, lookup.getSampler().getSeed(), maxRadius);
         
-        // First, check the player's current position
-        try {
-            ZoneBiomeResult startResult = generator.getZoneBiomeResultAt(seed, startX, startZ);
-            Biome startBiome = startResult.getBiome();
-            String startBiomeName = startBiome.getName();
-            LOGGER.atInfo().log("Player's current biome at (%d, %d): '%s'", startX, startZ, startBiomeName);
-            
-            if (targetBiomeName.equals(startBiomeName)) {
-                LOGGER.atInfo().log("Found target biome at starting position!");
-                return new int[]{startX, startZ};
-            }
-        } catch (Exception e) {
-            LOGGER.atWarning().log("Failed to query biome at starting position: %s", e.getMessage());
+        int targetId = lookup.resolve(targetBiomeName);
+        if (targetId == PathfinderBiomeIds.UNKNOWN) {
+            LOGGER.atWarning().log("Biome '%s' does not exist in this world's generator", targetBiomeName);
+            return null;
         }
         
-        int checkedCount = 0;
-        int lastLoggedRadius = -1;
+        // First, check the player's current position; a shared center is not a player's position
+        if (!collecting) {
+            try {
+                int startBiomeId = lookup.exactBiomeIdAt(startX, startZ);
+                LOGGER.atInfo().log("Player's current biome at (%d, %d): '%s'",
+                        startX, startZ, PathfinderBiomeIds.nameOf(startBiomeId));
+                
+                if (startBiomeId == targetId) {
+                    LOGGER.atInfo().log("Found target biome at starting position!");
+                    PathfinderMetrics.recordSearch(0, 1, 1, 0, false);
+                    return new int[]{startX, startZ};
+                }
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to query biome at starting position: %s", e.getMessage());
+            }
+        }
         
-        // Spiral search: start at center and expand outward
-        for (int radius = 16; radius <= maxRadius; radius += 16) { // Start at 16 since we already checked 0
+        // Spiral search: start at center and expand outward, evaluating ring sectors on the search pool.
+        // Rings are laid on the absolute sampling lattice so every search shares the cached samples.
+        // Ring 0 was already checked above, unless collecting.
+        PathfinderBiomeCache biomeCache = PathfinderBiomeCache.shared();
+        long hitsBefore = biomeCache.getHits();
+        long missesBefore = biomeCache.getMisses();
+        int[] lastLoggedRadius = {0};
+        PathfinderZoneFilter zoneFilter = PathfinderSearchExecutor.isZonePruningEnabled()
+                ? PathfinderZoneFilter.create(lookup, targetId) : null;
+        PathfinderParallelSearch.CellProbe latticeProbe = (x, z) -> {
+            try {
+                return lookup.biomeIdAt(x, z, zoneFilter) == targetId;
+            } catch (Exception e) {
+                // Continue searching if query fails
+                LOGGER.atFine().log("Failed to query biome at (%d, %d): %s", x, z, e.getMessage());
+                return false;
+            }
+        };
+        long startNanos = System.nanoTime();
+        PathfinderParallelSearch.RingListener progress = (radius, checkedCount) -> {
             // Log progress every 500 blocks
-            if (radius - lastLoggedRadius >= 500) {
+            if (radius - lastLoggedRadius[0] >= 500) {
                 LOGGER.atInfo().log("Searching at radius %d, checked %d coordinates so far...", radius, checkedCount);
-                lastLoggedRadius = radius;
+                lastLoggedRadius[0] = radius;
             }
-            
-            // Search in a square pattern at this radius
-            for (int dx = -radius; dx <= radius; dx += 16) {
-                for (int dz = -radius; dz <= radius; dz += 16) {
-                    // Only check points on the perimeter of the square (spiral pattern)
-                    if (Math.abs(dx) == radius || Math.abs(dz) == radius) {
-                        int x = startX + dx;
-                        int z = startZ + dz;
-                        checkedCount++;
-                        
+            publishProgress(progressListener, radius, maxRadius, checkedCount, startNanos);
+        };
+        
+        int[] found;
+        long checkedCount;
+        if (PathfinderSearchExecutor.isAdaptiveSearch()) {
+            // Coarse sweep, fine re-walk of the hit ring, the fine lattice around the coarse hit, then the boundary column
+            PathfinderAdaptiveSearch search = new PathfinderAdaptiveSearch(
+                    PathfinderSearchExecutor.pool(),
+                    startX,
+                    startZ,
+                    PathfinderSearchExecutor.getCoarseStride(),
+                    SEARCH_STRIDE,
+                    maxRadius,
+                    latticeProbe,
+                    (x, z) -> {
                         try {
-                            ZoneBiomeResult result = generator.getZoneBiomeResultAt(seed, x, z);
-                            Biome biome = result.getBiome();
-                            String biomeName = biome.getName();
-                            
-                            // Log first few biome names we encounter for debugging
-                            if (checkedCount <= 5) {
-                                LOGGER.atFine().log("Checked (%d, %d): biome='%s'", x, z, biomeName);
-                            }
-                            
-                            if (targetBiomeName.equals(biomeName)) {
-                                LOGGER.atInfo().log("Found target biome '%s' at (%d, %d) after checking %d coordinates", 
-                                        biomeName, x, z, checkedCount);
-                                return new int[]{x, z};
-                            }
+                            return lookup.exactBiomeIdAt(x, z) == targetId;
                         } catch (Exception e) {
-                            // Continue searching if query fails
-                            LOGGER.atFine().log("Failed to query biome at (%d, %d): %s", x, z, e.getMessage());
-                            continue;
+                            return false;
                         }
-                    }
-                }
+                    },
+                    cancelled
+            ).onRing(progress);
+            if (collecting) {
+                search.collectHits(collectReach);
+            }
+            found = search.run();
+            checkedCount = search.getCheckedCount();
+            if (collecting && found != null) {
+                hits.addAll(search.getHits());
+            }
+        } else {
+            PathfinderParallelSearch search = new PathfinderParallelSearch(
+                    PathfinderSearchExecutor.pool(),
+                    snapToLattice(startX, SEARCH_STRIDE),
+                    snapToLattice(startZ, SEARCH_STRIDE),
+                    SEARCH_STRIDE,
+                    maxRadius,
+                    latticeProbe,
+                    cancelled
+            ).onRing(progress);
+            if (collecting) {
+                search.fromRing(0).collectHits((collectReach + SEARCH_STRIDE - 1) / SEARCH_STRIDE);
+            }
+            found = search.run();
+            checkedCount = search.getCheckedCount();
+            if (collecting && found != null) {
+                hits.addAll(search.getHits());
+            }
+        }
+        LOGGER.atInfo().log("Biome cache: %d hits, %d misses during this search, %.1f%% overall hit rate, %d tiles; "
+                        + "index hits: %d, generator calls: %d",
+                biomeCache.getHits() - hitsBefore, biomeCache.getMisses() - missesBefore,
+                biomeCache.getHitRate() * 100.0, biomeCache.getTileCount(),
+                lookup.getIndexHits(), lookup.getGeneratorCalls());
+        if (zoneFilter != null) {
+            LOGGER.atInfo().log("Zone pruning: %d probes, %d coordinates skipped",
+                    zoneFilter.getProbes(), zoneFilter.getSkippedPoints());
+        }
+        boolean wasCancelled = found == null && cancelled.getAsBoolean();
+        PathfinderMetrics.recordSearch(System.nanoTime() - startNanos, checkedCount,
+                found != null ? 1 : 0, found == null ? 1 : 0, wasCancelled);
+        if (found != null) {
+            LOGGER.atInfo().log("Found target biome '%s' at (%d, %d) after checking %d coordinates", 
+                    targetBiomeName, found[0], found[1], checkedCount);
+            if (collecting) {
+                LOGGER.atInfo().log("Collected %d hits within %d blocks beyond the nearest one", hits.size(), collectReach);
             }
+            return found;
+        }
+        if (wasCancelled) {
+            LOGGER.atInfo().log("Biome search for '%s' cancelled after checking %d coordinates",
+                    targetBiomeName, checkedCount);
+            return null;
         }
         
         LOGGER.atWarning().log("Biome '%s' not found within radius %d (checked %d coordinates)", 
@@ -108,6 +241,35 @@ public class PathfinderSearchUtil {
         return null; // Biome not found within search radius
     }
     
+    /**
+     * Searches for a biome without progress updates.
+     */
+    @Nullable
+    public static int[] searchForBiome(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull String targetBiomeName,
+            int maxRadius,
+            @Nonnull BooleanSupplier cancelled
+    ) {
+        return searchForBiome(world, startX, startZ, targetBiomeName, maxRadius, cancelled, null);
+    }
+    
+    /**
+     * Searches for a biome without cancellation support.
+     */
+    @Nullable
+    public static int[] searchForBiome(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull String targetBiomeName,
+            int maxRadius
+    ) {
+        return searchForBiome(world, startX, startZ, targetBiomeName, maxRadius, () -> false);
+    }
+    
     /**
      * Searches for a biome with default max radius of 5000 blocks.
      */
@@ -121,50 +283,202 @@ public class PathfinderSearchUtil {
         return searchForBiome(world, startX, startZ, targetBiomeName, DEFAULT_MAX_RADIUS);
     }
     
+    /**
+     * Searches for a biome with default max radius of 5000 blocks, stopping early once cancelled.
+     */
+    @Nullable
+    public static int[] searchForBiome(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull String targetBiomeName,
+            @Nonnull BooleanSupplier cancelled
+    ) {
+        return searchForBiome(world, startX, startZ, targetBiomeName, DEFAULT_MAX_RADIUS, cancelled, null);
+    }
+    
+    /**
+     * Searches for a biome with default max radius of 5000 blocks, stopping early once cancelled and reporting
+     * progress after every band of rings.
+     */
+    @Nullable
+    public static int[] searchForBiome(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull String targetBiomeName,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
+    ) {
+        return searchForBiome(world, startX, startZ, targetBiomeName, DEFAULT_MAX_RADIUS, cancelled, progressListener);
+    }
+    
+    private static void publishProgress(
+            @Nullable Consumer<PathfinderSearchProgress> progressListener,
+            int radius,
+            int maxRadius,
+            long checkedCount,
+            long startNanos
+    ) {
+        if (progressListener != null) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            progressListener.accept(new PathfinderSearchProgress(Math.min(radius, maxRadius), maxRadius, checkedCount, elapsedMillis));
+        }
+    }
+    
+    /**
+     * Searches for several biomes at once. Every ring cell is sampled once and compared against all biomes that
+     * have not been found yet, so the cost is that of a single search for the farthest biome instead of one
+     * search per biome. Each result is the same location a single-biome search in exact mode would find.
+     * 
+     * @param world The world to search in
+     * @param startX Starting X coordinate
+     * @param startZ Starting Z coordinate
+     * @param targetBiomeNames The names of the biomes to search for (case-sensitive)
+     * @param maxRadius Maximum search radius in blocks
+     * @param cancelled Checked before every ring; the search stops once it reports true
+     * @param progressListener Receives the search progress after every band of rings (can be null)
+     * @return The coordinates of every biome as [x, z] in the order given, with null values for biomes that were
+     * not found, or null if the world generator is not supported
+     */
+    @Nullable
+    public static java.util.Map<String, int[]> searchForBiomes(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull java.util.Collection<String> targetBiomeNames,
+            int maxRadius,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
+    ) {
+        PathfinderBiomeLookup lookup = PathfinderBiomeLookup.forWorld(world);
+        if (lookup == null) {
+            LOGGER.atWarning().log("No biome sampler for world generator %s",
+                    world.getChunkStore().getGenerator().getClass().getName());
+            return null;
+        }
+        
+        java.util.Map<String, int[]> results = new java.util.LinkedHashMap<>();
+        java.util.List<String> pending = new java.util.ArrayList<>();
+        String startBiomeName = null;
+        try {
+            startBiomeName = PathfinderBiomeIds.nameOf(lookup.exactBiomeIdAt(startX, startZ));
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to query biome at starting position: %s", e.getMessage());
+        }
+        for (String name : targetBiomeNames) {
+            if (name.equals(startBiomeName)) {
+                results.put(name, new int[]{startX, startZ});
+            } else if (!results.containsKey(name)) {
+                results.put(name, null);
+                pending.add(name);
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+        
+        // Names the generator does not know can never be found and stay null
+        pending.removeIf(name -> lookup.resolve(name) == PathfinderBiomeIds.UNKNOWN);
+        if (pending.isEmpty()) {
+            return results;
+        }
+        int[] targetIds = new int[pending.size()];
+        for (int i = 0; i < targetIds.length; i++) {
+            targetIds[i] = lookup.resolve(pending.get(i));
+        }
+        LOGGER.atInfo().log("Starting batch biome search: %d targets, start=(%d, %d), maxRadius=%d",
+                targetIds.length, startX, startZ, maxRadius);
+        
+        PathfinderZoneFilter zoneFilter = PathfinderSearchExecutor.isZonePruningEnabled()
+                ? PathfinderZoneFilter.create(lookup, targetIds) : null;
+        long startNanos = System.nanoTime();
+        PathfinderBatchSearch search = new PathfinderBatchSearch(
+                PathfinderSearchExecutor.pool(),
+                snapToLattice(startX, SEARCH_STRIDE),
+                snapToLattice(startZ, SEARCH_STRIDE),
+                SEARCH_STRIDE,
+                maxRadius,
+                targetIds,
+                (x, z) -> {
+                    try {
+                        return lookup.biomeIdAt(x, z, zoneFilter);
+                    } catch (Exception e) {
+                        LOGGER.atFine().log("Failed to query biome at (%d, %d): %s", x, z, e.getMessage());
+                        return PathfinderBiomeIds.UNKNOWN;
+                    }
+                },
+                cancelled
+        ).onRing((radius, checkedCount) -> publishProgress(progressListener, radius, maxRadius, checkedCount, startNanos));
+        int[][] found = search.run();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i] != null) {
+                results.put(pending.get(i), found[i]);
+            }
+        }
+        PathfinderMetrics.recordSearch(System.nanoTime() - startNanos, search.getCheckedCount(),
+                targetIds.length - search.getRemaining(), search.getRemaining(), cancelled.getAsBoolean());
+        LOGGER.atInfo().log("Batch biome search finished: %d of %d biomes found after checking %d coordinates%s",
+                targetIds.length - search.getRemaining(), targetIds.length, search.getCheckedCount(),
+                cancelled.getAsBoolean() ? " (cancelled)" : "");
+        return results;
+    }
+    
+    /**
+     * Searches for several biomes with default max radius of 5000 blocks, stopping early once cancelled and
+     * reporting progress after every band of rings.
+     */
+    @Nullable
+    public static java.util.Map<String, int[]> searchForBiomes(
+            @Nonnull World world,
+            int startX,
+            int startZ,
+            @Nonnull java.util.Collection<String> targetBiomeNames,
+            @Nonnull BooleanSupplier cancelled,
+            @Nullable Consumer<PathfinderSearchProgress> progressListener
+    ) {
+        return searchForBiomes(world, startX, startZ, targetBiomeNames, DEFAULT_MAX_RADIUS, cancelled, progressListener);
+    }
+    
     /**
      * Gets all available biome types from the world generator's zone pattern provider.
      * This is the proper way to get all biomes without needing to sample the world.
+     * The zones are read once per world; later calls return the cached {@link PathfinderBiomeCatalog}'s names.
      * 
      * @param world The world to get biomes from
-     * @return Set of all unique biome names available in the world, or null if world generator is not supported
+     * @return Immutable, alphabetically sorted set of all unique biome names available in the world, or null if
+     *         world generator is not supported
      */
     @Nullable
     public static java.util.Set<String> getAllBiomes(@Nonnull World world) {
-        IWorldGen worldGen = world.getChunkStore().getGenerator();
-        if (!(worldGen instanceof ChunkGenerator generator)) {
-            LOGGER.atWarning().log("World generator is not ChunkGenerator (v1), it is: %s", worldGen.getClass().getName());
+        PathfinderBiomeCatalog catalog = PathfinderBiomeCatalog.forWorld(world);
+        if (catalog == null) {
+            LOGGER.atWarning().log("No biome sampler for world generator %s",
+                    world.getChunkStore().getGenerator().getClass().getName());
             return null;
         }
-        
-        java.util.Set<String> biomes = new java.util.HashSet<>();
-        
-        try {
-            com.hypixel.hytale.server.worldgen.zone.ZonePatternProvider zonePatternProvider = generator.getZonePatternProvider();
-            com.hypixel.hytale.server.worldgen.zone.Zone[] zones = zonePatternProvider.getZones();
-            
-            LOGGER.atInfo().log("Getting all biomes from %d zones", zones.length);
-            
-            for (com.hypixel.hytale.server.worldgen.zone.Zone zone : zones) {
-                com.hypixel.hytale.server.worldgen.biome.BiomePatternGenerator biomePatternGenerator = zone.biomePatternGenerator();
-                Biome[] zoneBiomes = biomePatternGenerator.getBiomes();
-                
-                for (Biome biome : zoneBiomes) {
-                    String biomeName = biome.getName();
-                    biomes.add(biomeName);
-                    LOGGER.atFine().log("Found biome '%s' in zone '%s'", biomeName, zone.name());
-                }
-            }
-            
-            LOGGER.atInfo().log("Found %d unique biomes across all zones", biomes.size());
-        } catch (Exception e) {
-            LOGGER.atWarning().log("Error getting biomes from zone pattern provider: %s", e.getMessage());
-            e.printStackTrace();
+        if (catalog.isEmpty()) {
+            LOGGER.atWarning().log("World generator %s does not list its biomes",
+                    world.getChunkStore().getGenerator().getClass().getName());
             return null;
         }
-        
-        return biomes;
+        return catalog.getBiomeNames();
     }
     
+    /**
+     * Returns the searchable name index of all biomes the world generator can produce.
+     *
+     * @return The index, or null if the world generator is not supported or does not list its biomes
+     */
+    @Nullable
+    public static PathfinderBiomeNameIndex getBiomeNameIndex(@Nonnull World world) {
+        PathfinderBiomeCatalog catalog = PathfinderBiomeCatalog.forWorld(world);
+        if (catalog == null || catalog.isEmpty()) {
+            return null;
+        }
+        return catalog.getNameIndex();
+    }
+
     /**
      * Discovers all unique biome types in an area around the given position.
      * This is a fallback method if getAllBiomes() doesn't work.
@@ -189,38 +503,67 @@ public class PathfinderSearchUtil {
         }
         
         // Fallback to sampling if registry method doesn't work
-        IWorldGen worldGen = world.getChunkStore().getGenerator();
-        if (!(worldGen instanceof ChunkGenerator generator)) {
-            LOGGER.atWarning().log("World generator is not ChunkGenerator (v1), it is: %s", worldGen.getClass().getName());
+        PathfinderBiomeLookup lookup = PathfinderBiomeLookup.forWorld(world);
+        if (lookup == null) {
+            LOGGER.atWarning().log("No biome sampler for world generator %s",
+                    world.getChunkStore().getGenerator().getClass().getName());
             return null;
         }
         
-        int seed = (int)world.getWorldConfig().getSeed();
-        java.util.Set<String> biomes = new java.util.HashSet<>();
-        
         LOGGER.atInfo().log("Discovering biomes by sampling: start=(%d, %d), radius=%d", startX, startZ, radius);
-        
-        int checkedCount = 0;
-        // Sample biomes in a grid pattern (every 64 blocks for efficiency)
-        for (int dx = -radius; dx <= radius; dx += 64) {
-            for (int dz = -radius; dz <= radius; dz += 64) {
-                int x = startX + dx;
-                int z = startZ + dz;
-                checkedCount++;
-                
-                try {
-                    ZoneBiomeResult result = generator.getZoneBiomeResultAt(seed, x, z);
-                    Biome biome = result.getBiome();
-                    String biomeName = biome.getName();
-                    biomes.add(biomeName);
-                } catch (Exception e) {
-                    LOGGER.atFine().log("Failed to query biome at (%d, %d): %s", x, z, e.getMessage());
-                    continue;
-                }
-            }
+        return discoverBiomes(lookup::sampleGrid, startX, startZ, radius, lookup.getCatalog().size());
+    }
+
+    /**
+     * Discovers biomes by sampling rings around the start position in parallel, nearest first, until no new biome
+     * turns up for the configured number of rings.
+     *
+     * @param sampler Fills a grid of interned biome IDs, see {@link PathfinderBiomeSampler#sampleGrid}; called concurrently
+     * @return Names of all biomes found
+     */
+    @Nonnull
+    public static java.util.Set<String> discoverBiomes(
+            @Nonnull GridSampler sampler,
+            int startX,
+            int startZ,
+            int radius
+    ) {
+        return discoverBiomes(sampler, startX, startZ, radius, 0);
+    }
+
+    /**
+     * Discovers biomes by sampling rings around the start position in parallel, nearest first. Stops when no new
+     * biome turned up for the configured number of rings or {@code expectedCount} biomes were found.
+     *
+     * @param sampler Fills a grid of interned biome IDs, see {@link PathfinderBiomeSampler#sampleGrid}; called concurrently
+     * @param expectedCount Number of biomes the generator can produce, or 0 if unknown
+     * @return Names of all biomes found
+     */
+    @Nonnull
+    public static java.util.Set<String> discoverBiomes(
+            @Nonnull GridSampler sampler,
+            int startX,
+            int startZ,
+            int radius,
+            int expectedCount
+    ) {
+        // Sample biomes on a coarse lattice (every 64 blocks for efficiency), aligned with the cache lattice
+        PathfinderBiomeDiscovery discovery = new PathfinderBiomeDiscovery(
+                PathfinderSearchExecutor.pool(),
+                sampler,
+                snapToLattice(startX, DISCOVERY_STRIDE),
+                snapToLattice(startZ, DISCOVERY_STRIDE),
+                DISCOVERY_STRIDE,
+                radius
+        ).stopAfterStableRings(PathfinderSearchExecutor.getDiscoveryStableRings()).expecting(expectedCount);
+        java.util.Set<String> biomes = discovery.run();
+        if (discovery.getFailedCount() > 0) {
+            LOGGER.atWarning().log("Failed to sample %d of %d coordinates around (%d, %d); keeping the biomes of the rest",
+                    discovery.getFailedCount(), discovery.getCheckedCount(), startX, startZ);
         }
         
-        LOGGER.atInfo().log("Discovered %d unique biomes after checking %d coordinates", biomes.size(), checkedCount);
+        LOGGER.atInfo().log("Discovered %d unique biomes after checking %d coordinates out to %d blocks",
+                biomes.size(), discovery.getCheckedCount(), discovery.getLastRing() * DISCOVERY_STRIDE);
         return biomes;
     }
 }
@@ -0,0 +1,215 @@
+package com.hexvane.pathfinder;
+
+import com.hypixel.hytale.server.worldgen.zone.Zone;
+import com.hypixel.hytale.server.worldgen.zone.ZoneGeneratorResult;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Skips biome sampling in regions whose zone cannot produce any of the target biomes.
+ * <p>
+ * The world is divided into {@value #REGION_SIZE}-block regions. The first time any search reaches a region, its
+ * zone is probed once at the center and at the four corners. A region is only skipped when all five probes land in
+ * zones without a target biome and the center is farther from the zone border than the region's half-diagonal, so
+ * a region that might touch another zone is always sampled. Probes are kept per (world generator, seed) for every
+ * search and target, up to {@value #MAX_REGIONS} regions, after which the least recently used quarter is evicted.
+ * Callers should only ask about points the cache and the index cannot answer. Safe to use from several threads at
+ * once.
+ */
+public final class PathfinderZoneFilter {
+    static final int REGION_SHIFT = 8;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+    /** About 2 MB of probed regions, covering a 32768-block square. */
+    static final int MAX_REGIONS = 16384;
+    private static final double REGION_HALF_DIAGONAL = REGION_SIZE * Math.sqrt(2.0) / 2.0;
+
+    private static final Map<RegionKey, Region> REGIONS = new ConcurrentHashMap<>();
+    private static final AtomicLong CLOCK = new AtomicLong();
+    private static final ReentrantLock EVICTION_LOCK = new ReentrantLock();
+
+    private final PathfinderBiomeSampler sampler;
+    private final PathfinderBiomeCatalog catalog;
+    private final BitSet targets;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder skippedPoints = new LongAdder();
+
+    private PathfinderZoneFilter(@Nonnull PathfinderBiomeLookup lookup, @Nonnull BitSet targets) {
+        this.sampler = lookup.getSampler();
+        this.catalog = lookup.getCatalog();
+        this.targets = targets;
+    }
+
+    /**
+     * Creates a filter for the given target biome IDs.
+     *
+     * @return The filter, or null if the sampler has no zones, or every zone can produce one of the targets and
+     * there is nothing to skip
+     */
+    @Nullable
+    public static PathfinderZoneFilter create(@Nonnull PathfinderBiomeLookup lookup, @Nonnull int... targetIds) {
+        if (lookup.getCatalog().isEmpty()) {
+            return null;
+        }
+        BitSet targets = new BitSet();
+        for (int targetId : targetIds) {
+            targets.set(targetId);
+        }
+        if (!lookup.getCatalog().isZoneRestricted(targets)) {
+            return null;
+        }
+        CLOCK.incrementAndGet();
+        return new PathfinderZoneFilter(lookup, targets);
+    }
+
+    /** Drops the probed regions of a world generator, e.g. when its world is removed. */
+    public static void invalidate(@Nonnull Object source) {
+        REGIONS.keySet().removeIf(key -> key.source() == source);
+    }
+
+    public static void clear() {
+        REGIONS.clear();
+    }
+
+    /** Returns false if the region containing the block column is known to lie in a zone without any target. */
+    public boolean canContain(int x, int z) {
+        Region region = this.region(x >> REGION_SHIFT, z >> REGION_SHIFT);
+        if (region == null || region.canContainAny(this.catalog, this.targets)) {
+            return true;
+        }
+        this.skippedPoints.increment();
+        return false;
+    }
+
+    @Nullable
+    private Region region(int regionX, int regionZ) {
+        RegionKey key = new RegionKey(this.sampler.getSource(), this.sampler.getSeed(),
+                PathfinderBiomeCache.tileKey(regionX, regionZ));
+        Region region = REGIONS.get(key);
+        if (region == null) {
+            region = this.probeRegion(regionX, regionZ);
+            if (region == null) {
+                // Not remembered, so a region that could not be probed is tried again later
+                return null;
+            }
+            Region existing = REGIONS.putIfAbsent(key, region);
+            if (existing != null) {
+                region = existing;
+            } else {
+                evictIfNeeded();
+            }
+        }
+        long now = CLOCK.get();
+        if (region.lastUsed < now) {
+            region.lastUsed = now;
+        }
+        return region;
+    }
+
+    @Nullable
+    private Region probeRegion(int regionX, int regionZ) {
+        int minX = regionX << REGION_SHIFT;
+        int minZ = regionZ << REGION_SHIFT;
+        int maxX = minX + REGION_SIZE - 1;
+        int maxZ = minZ + REGION_SIZE - 1;
+        try {
+            ZoneGeneratorResult center = this.probe(minX + REGION_SIZE / 2, minZ + REGION_SIZE / 2);
+            if (center.getBorderDistance() < REGION_HALF_DIAGONAL) {
+                // Near a zone border, so never skipped
+                return new Region(null);
+            }
+            return new Region(new Zone[]{
+                    center.getZone(),
+                    this.probe(minX, minZ).getZone(),
+                    this.probe(maxX, minZ).getZone(),
+                    this.probe(minX, maxZ).getZone(),
+                    this.probe(maxX, maxZ).getZone()
+            });
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Nonnull
+    private ZoneGeneratorResult probe(int x, int z) {
+        this.probes.increment();
+        ZoneGeneratorResult zone = this.sampler.zoneAt(x, z);
+        if (zone == null) {
+            throw new IllegalStateException("Sampler has no zone at " + x + ", " + z);
+        }
+        return zone;
+    }
+
+    private static void evictIfNeeded() {
+        if (REGIONS.size() <= MAX_REGIONS || !EVICTION_LOCK.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<RegionKey, Region>> all = new ArrayList<>(REGIONS.entrySet());
+            if (all.size() <= MAX_REGIONS) {
+                return;
+            }
+            all.sort((a, b) -> Long.compare(a.getValue().lastUsed, b.getValue().lastUsed));
+            int toEvict = all.size() - (MAX_REGIONS - MAX_REGIONS / 4);
+            for (int i = 0; i < toEvict; i++) {
+                REGIONS.remove(all.get(i).getKey(), all.get(i).getValue());
+            }
+        } finally {
+            EVICTION_LOCK.unlock();
+        }
+    }
+
+    /** Number of zone probes made by this filter. */
+    public long getProbes() {
+        return this.probes.sum();
+    }
+
+    /** Number of lattice points this filter skipped. */
+    public long getSkippedPoints() {
+        return this.skippedPoints.sum();
+    }
+
+    private record RegionKey(Object source, int seed, long region) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RegionKey other
+                    && other.source == this.source && other.seed == this.seed && other.region == this.region;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(this.source) * 31 + this.seed) * 31 + Long.hashCode(this.region);
+        }
+    }
+
+    /** Zones probed in one region, independent of the targets. */
+    private static final class Region {
+        /** Zones at the center and the corners, or null if the region is near a zone border. */
+        @Nullable
+        private final Zone[] zones;
+        private volatile long lastUsed;
+
+        Region(@Nullable Zone[] zones) {
+            this.zones = zones;
+        }
+
+        boolean canContainAny(@Nonnull PathfinderBiomeCatalog catalog, @Nonnull BitSet targets) {
+            if (this.zones == null) {
+                return true;
+            }
+            for (Zone zone : this.zones) {
+                if (catalog.canContainAny(zone, targets)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
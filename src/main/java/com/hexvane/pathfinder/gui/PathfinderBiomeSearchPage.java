@@ -17,21 +17,51 @@ import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.hexvane.pathfinder.PathfinderBackground;
+import com.hexvane.pathfinder.PathfinderBiomeNameIndex;
 import com.hexvane.pathfinder.PathfinderMarkerStorage;
+import com.hexvane.pathfinder.PathfinderSearchHandle;
 import com.hexvane.pathfinder.PathfinderSearchService;
 import com.hexvane.pathfinder.PathfinderSearchUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<PathfinderBiomeSearchPage.PathfinderEventData> {
+    /** Minimum time between two progress updates sent to the client. */
+    private static final long PROGRESS_UPDATE_INTERVAL_MS = 250;
+    /** Filter changes are applied once typing pauses for this long. */
+    private static final long FILTER_DEBOUNCE_MS = 150;
+    /** Rows shown at once; the client only ever holds this many, whatever the size of the catalog. */
+    private static final int PAGE_SIZE = 20;
+
     private final World world;
-    private Set<String> allBiomes;
+    @Nullable
+    private PathfinderBiomeNameIndex biomeIndex;
     private String searchFilter = "";
+    /** Filter the visible rows were computed for; trails {@link #searchFilter} while typing. */
+    private String appliedFilter = "";
+    /** Sorted index positions of the biomes matching the filter. */
+    private int[] matches;
+    private int page;
+    /** Biome shown in each row slot, or null if the slot is hidden; what the client currently displays. */
+    private final String[] slotNames = new String[PAGE_SIZE];
+    private final boolean[] slotSelected = new boolean[PAGE_SIZE];
+    /** Increased by every filter change, so only the last one of a burst is applied. */
+    private int filterGeneration;
     private String selectedBiome = null;
     private boolean biomesLoaded = false;
+    private String statusText = "";
+    @Nullable
+    private volatile PathfinderSearchHandle<int[]> activeSearch;
+    private volatile long lastProgressUpdate;
+    private volatile boolean dismissed;
 
     public PathfinderBiomeSearchPage(@Nonnull PlayerRef playerRef, @Nonnull World world) {
         super(playerRef, CustomPageLifetime.CanDismissOrCloseThroughInteraction, PathfinderEventData.CODEC);
@@ -41,10 +71,12 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
 
     private void loadBiomes() {
         CompletableFuture.supplyAsync(() -> {
-            return PathfinderSearchUtil.getAllBiomes(this.world);
-        }, this.world).thenAcceptAsync(biomes -> {
-            if (biomes != null) {
-                this.allBiomes = biomes;
+            return PathfinderSearchUtil.getBiomeNameIndex(this.world);
+        }, this.world).thenAcceptAsync(index -> {
+            if (index != null) {
+                this.biomeIndex = index;
+                this.appliedFilter = this.searchFilter;
+                this.matches = index.filter(this.searchFilter);
                 this.biomesLoaded = true;
                 // Use sendUpdate to rebuild the UI (rebuild() is deprecated)
                 Ref<EntityStore> ref = this.playerRef.getReference();
@@ -74,53 +106,32 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
         
         // Set search filter value - CompactTextField uses .Value property
         commandBuilder.set("#SearchInput.Value", this.searchFilter);
+        commandBuilder.set("#StatusLabel.Text", this.statusText);
         
         // Set search button disabled state based on selection
         // The TextButton style already has a disabled state defined, so we just set Disabled
-        if (this.selectedBiome != null) {
-            commandBuilder.set("#SearchButton.Disabled", false);
-        } else {
-            commandBuilder.set("#SearchButton.Disabled", true);
-        }
+        commandBuilder.set("#SearchButton.Disabled", this.selectedBiome == null);
         
-        // Build filtered biome list
-        if (this.biomesLoaded && this.allBiomes != null) {
-            List<String> filteredBiomes = new ArrayList<>();
-            for (String biome : this.allBiomes) {
-                if (this.searchFilter.isEmpty() || biome.toLowerCase().contains(this.searchFilter.toLowerCase())) {
-                    filteredBiomes.add(biome);
-                }
-            }
-            
-            // Add biome entries to the list using the biome entry template
-            for (int i = 0; i < filteredBiomes.size(); i++) {
-                String biome = filteredBiomes.get(i);
-                boolean isSelected = biome.equals(this.selectedBiome);
-                
+        // A fixed set of row slots that show one page of the filtered biomes; filtering, paging and selection
+        // afterwards only patch the slots that change
+        if (this.biomesLoaded && this.biomeIndex != null) {
+            for (int slot = 0; slot < PAGE_SIZE; slot++) {
                 // Append biome entry using the template
                 commandBuilder.append("#BiomeList", "Pages/PathfinderBiomeEntry.ui");
                 
-                // Set the biome name - use index-based selector with .Text property
+                // Register click event for this row; the row resolves to whichever biome it currently shows
                 // When we append a UI file, it becomes a direct child, so the selector is just the index
-                String entrySelector = "#BiomeList[" + i + "]";
-                commandBuilder.set(entrySelector + " #Name.Text", biome);
-                
-                // Set selected state (highlight background) - apply selected style
-                // Use a solid color for selected items (buttons expect PatchStyle or solid colors, not colors with opacity)
-                if (isSelected) {
-                    commandBuilder.set(entrySelector + ".Style.Default.Background", "#4a90e2");
-                }
-                // For non-selected items, don't set background - let the UI file default handle it
-                
-                // Register click event for this biome entry
-                // The appended element itself is the Button, so we bind to the entry selector
                 eventBuilder.addEventBinding(
                         CustomUIEventBindingType.Activating,
-                        entrySelector,
-                        EventData.of("Biome", biome),
+                        rowSelector(slot),
+                        EventData.of("Row", Integer.toString(slot)),
                         false
                 );
             }
+            this.renderPage(commandBuilder, true);
+        } else {
+            commandBuilder.set("#PreviousPageButton.Disabled", true);
+            commandBuilder.set("#NextPageButton.Disabled", true);
         }
         // Note: When loading, we just leave the list empty - it will show nothing until biomes are loaded
         
@@ -157,6 +168,85 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
                 EventData.of("Action", "ClearAll"),
                 false
         );
+        
+        // Page buttons
+        eventBuilder.addEventBinding(
+                CustomUIEventBindingType.Activating,
+                "#PreviousPageButton",
+                EventData.of("Action", "PreviousPage"),
+                false
+        );
+        eventBuilder.addEventBinding(
+                CustomUIEventBindingType.Activating,
+                "#NextPageButton",
+                EventData.of("Action", "NextPage"),
+                false
+        );
+    }
+
+    @Nonnull
+    private static String rowSelector(int slot) {
+        return "#BiomeList[" + slot + "]";
+    }
+
+    private int getPageCount() {
+        return Math.max(1, (this.matches.length + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    /**
+     * Shows the current page of {@link #matches}, sending only the slots whose biome or selection differs from
+     * what the client shows.
+     *
+     * @param force Send every slot, e.g. right after the slots were appended
+     */
+    private void renderPage(@Nonnull UICommandBuilder commandBuilder, boolean force) {
+        PathfinderBiomeNameIndex index = this.biomeIndex;
+        if (index == null) {
+            return;
+        }
+        this.page = Math.min(this.page, this.getPageCount() - 1);
+        int first = this.page * PAGE_SIZE;
+        for (int slot = 0; slot < PAGE_SIZE; slot++) {
+            int match = first + slot;
+            String biome = match < this.matches.length ? index.getName(this.matches[match]) : null;
+            String shown = this.slotNames[slot];
+            String selector = rowSelector(slot);
+            if (force || !Objects.equals(biome, shown)) {
+                if (biome == null) {
+                    commandBuilder.set(selector + ".Visible", false);
+                } else {
+                    if (force || shown == null) {
+                        commandBuilder.set(selector + ".Visible", true);
+                    }
+                    commandBuilder.set(selector + " #Name.Text", biome);
+                }
+            }
+            boolean selected = biome != null && biome.equals(this.selectedBiome);
+            if (force || selected != this.slotSelected[slot]) {
+                commandBuilder.set(selector + " #Selected.Visible", selected);
+            }
+            this.slotNames[slot] = biome;
+            this.slotSelected[slot] = selected;
+        }
+        commandBuilder.set("#PageLabel.Text", this.matches.length == 0
+                ? "No matching biomes"
+                : "Page " + (this.page + 1) + " of " + this.getPageCount() + " (" + this.matches.length + " biomes)");
+        commandBuilder.set("#PreviousPageButton.Disabled", this.page == 0);
+        commandBuilder.set("#NextPageButton.Disabled", this.page >= this.getPageCount() - 1);
+    }
+
+    private void changePage(int delta) {
+        if (this.biomeIndex == null) {
+            return;
+        }
+        int next = Math.max(0, Math.min(this.page + delta, this.getPageCount() - 1));
+        if (next == this.page) {
+            return;
+        }
+        this.page = next;
+        UICommandBuilder commandBuilder = new UICommandBuilder();
+        this.renderPage(commandBuilder, false);
+        this.sendUpdate(commandBuilder, false);
     }
 
     @Override
@@ -170,137 +260,81 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
                     }
                     break;
                 case "Cancel":
-                    this.close();
+                    // Stop a running search first; only close the page when nothing is running
+                    PathfinderSearchHandle<int[]> running = this.activeSearch;
+                    if (running != null) {
+                        // Only this page's search; a search the player started elsewhere keeps running
+                        running.cancel();
+                        this.activeSearch = null;
+                        this.setStatus("Search cancelled.");
+                    } else {
+                        this.close();
+                    }
                     break;
                 case "ClearAll":
                     this.clearAllMarkers(ref, store);
                     break;
+                case "PreviousPage":
+                    this.changePage(-1);
+                    break;
+                case "NextPage":
+                    this.changePage(1);
+                    break;
             }
-        } else if (data.biome != null) {
-            // Biome entry was clicked - select it
-            this.selectedBiome = data.biome;
-            this.updateBiomeListAndButton(ref, store);
+        } else if (data.row != null) {
+            // Biome entry was clicked - select the biome the row shows
+            this.selectRow(data.row);
         } else if (data.searchQuery != null) {
-            // Search filter changed - update only the biome list to preserve search input focus
+            // Search filter changed - wait for typing to pause, then patch only the rows that change
             this.searchFilter = data.searchQuery;
-            // Clear selection if the selected biome is no longer in the filtered list
-            if (this.selectedBiome != null && this.allBiomes != null) {
-                List<String> filteredBiomes = new ArrayList<>();
-                for (String biome : this.allBiomes) {
-                    if (this.searchFilter.isEmpty() || biome.toLowerCase().contains(this.searchFilter.toLowerCase())) {
-                        filteredBiomes.add(biome);
-                    }
-                }
-                if (!filteredBiomes.contains(this.selectedBiome)) {
-                    this.selectedBiome = null;
+            int generation = ++this.filterGeneration;
+            PathfinderBackground.executor().schedule(() -> this.world.execute(() -> {
+                if (generation == this.filterGeneration && !this.dismissed) {
+                    this.applyFilter();
                 }
-            }
-            this.updateBiomeList(ref, store);
+            }), FILTER_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
         }
     }
 
-    private void updateBiomeList(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
-        // Update only the biome list without rebuilding the entire UI (preserves search input focus)
-        UICommandBuilder commandBuilder = new UICommandBuilder();
-        UIEventBuilder eventBuilder = new UIEventBuilder();
-        
-        // Clear and rebuild the biome list
-        commandBuilder.clear("#BiomeList");
-        
-        if (this.biomesLoaded && this.allBiomes != null) {
-            List<String> filteredBiomes = new ArrayList<>();
-            for (String biome : this.allBiomes) {
-                if (this.searchFilter.isEmpty() || biome.toLowerCase().contains(this.searchFilter.toLowerCase())) {
-                    filteredBiomes.add(biome);
-                }
-            }
-            
-            // Add biome entries
-            for (int i = 0; i < filteredBiomes.size(); i++) {
-                String biome = filteredBiomes.get(i);
-                boolean isSelected = biome.equals(this.selectedBiome);
-                
-                commandBuilder.append("#BiomeList", "Pages/PathfinderBiomeEntry.ui");
-                String entrySelector = "#BiomeList[" + i + "]";
-                commandBuilder.set(entrySelector + " #Name.Text", biome);
-                
-                // Set selected state visual indication
-                // Use a solid color for selected items
-                if (isSelected) {
-                    commandBuilder.set(entrySelector + ".Style.Default.Background", "#4a90e2");
-                }
-                // For non-selected items, don't set background - let the UI file default handle it
-                
-                eventBuilder.addEventBinding(
-                        CustomUIEventBindingType.Activating,
-                        entrySelector,
-                        EventData.of("Biome", biome),
-                        false
-                );
-            }
+    /** Shows the first page of biomes matching {@link #searchFilter}, patching only the slots that change. */
+    private void applyFilter() {
+        PathfinderBiomeNameIndex index = this.biomeIndex;
+        if (index == null || this.searchFilter.equals(this.appliedFilter)) {
+            return;
         }
-        
-        // Update search button disabled state based on selection
-        // The TextButton style already has a disabled state defined, so we just set Disabled
-        if (this.selectedBiome != null) {
-            commandBuilder.set("#SearchButton.Disabled", false);
-        } else {
+        // A longer query can only match a subset of the current matches
+        this.matches = this.searchFilter.toLowerCase(Locale.ROOT).contains(this.appliedFilter.toLowerCase(Locale.ROOT))
+                ? index.refine(this.matches, this.searchFilter)
+                : index.filter(this.searchFilter);
+        this.appliedFilter = this.searchFilter;
+        this.page = 0;
+
+        UICommandBuilder commandBuilder = new UICommandBuilder();
+        // Clear selection if the selected biome is no longer in the filtered list
+        if (this.selectedBiome != null && Arrays.binarySearch(this.matches, index.indexOf(this.selectedBiome)) < 0) {
+            this.selectedBiome = null;
             commandBuilder.set("#SearchButton.Disabled", true);
         }
-        
-        this.sendUpdate(commandBuilder, eventBuilder, false);
+        this.renderPage(commandBuilder, false);
+        this.sendUpdate(commandBuilder, false);
     }
-    
-    private void updateBiomeListAndButton(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
-        // Update biome list and search button state
-        UICommandBuilder commandBuilder = new UICommandBuilder();
-        UIEventBuilder eventBuilder = new UIEventBuilder();
-        
-        // Clear and rebuild the biome list
-        commandBuilder.clear("#BiomeList");
-        
-        if (this.biomesLoaded && this.allBiomes != null) {
-            List<String> filteredBiomes = new ArrayList<>();
-            for (String biome : this.allBiomes) {
-                if (this.searchFilter.isEmpty() || biome.toLowerCase().contains(this.searchFilter.toLowerCase())) {
-                    filteredBiomes.add(biome);
-                }
-            }
-            
-            // Add biome entries
-            for (int i = 0; i < filteredBiomes.size(); i++) {
-                String biome = filteredBiomes.get(i);
-                boolean isSelected = biome.equals(this.selectedBiome);
-                
-                commandBuilder.append("#BiomeList", "Pages/PathfinderBiomeEntry.ui");
-                String entrySelector = "#BiomeList[" + i + "]";
-                commandBuilder.set(entrySelector + " #Name.Text", biome);
-                
-                // Set selected state visual indication
-                // Use a solid color for selected items
-                if (isSelected) {
-                    commandBuilder.set(entrySelector + ".Style.Default.Background", "#4a90e2");
-                }
-                // For non-selected items, don't set background - let the UI file default handle it
-                
-                eventBuilder.addEventBinding(
-                        CustomUIEventBindingType.Activating,
-                        entrySelector,
-                        EventData.of("Biome", biome),
-                        false
-                );
-            }
+
+    /** Selects the biome shown in a row slot and enables the search button. */
+    private void selectRow(@Nonnull String row) {
+        int slot;
+        try {
+            slot = Integer.parseInt(row);
+        } catch (NumberFormatException e) {
+            return;
         }
-        
-        // Update search button disabled state based on selection
-        // The TextButton style already has a disabled state defined, so we just set Disabled
-        if (this.selectedBiome != null) {
-            commandBuilder.set("#SearchButton.Disabled", false);
-        } else {
-            commandBuilder.set("#SearchButton.Disabled", true);
+        if (slot < 0 || slot >= PAGE_SIZE || this.slotNames[slot] == null) {
+            return;
         }
-        
-        this.sendUpdate(commandBuilder, eventBuilder, false);
+        this.selectedBiome = this.slotNames[slot];
+        UICommandBuilder commandBuilder = new UICommandBuilder();
+        commandBuilder.set("#SearchButton.Disabled", false);
+        this.renderPage(commandBuilder, false);
+        this.sendUpdate(commandBuilder, false);
     }
     
     private void performSearch(@Nonnull String biomeName) {
@@ -311,16 +345,69 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
         Player playerComponent = store.getComponent(ref, Player.getComponentType());
         if (playerComponent == null) return;
         
-        this.close();
-        
-        // Use the shared search service
-        PathfinderSearchService.searchForBiome(
+        // Use the shared search service; the page stays open and shows the progress
+        PathfinderSearchHandle<int[]> handle = PathfinderSearchService.searchForBiome(
                 store,
                 ref,
+                this.playerRef,
                 this.world,
                 biomeName,
                 playerComponent::sendMessage
         );
+        if (handle == null) {
+            return;
+        }
+        
+        this.activeSearch = handle;
+        this.lastProgressUpdate = 0;
+        this.setStatus("Searching for " + biomeName + "...");
+        handle.onProgress(progress -> {
+            long now = System.currentTimeMillis();
+            if (now - this.lastProgressUpdate < PROGRESS_UPDATE_INTERVAL_MS) {
+                return;
+            }
+            this.lastProgressUpdate = now;
+            this.world.execute(() -> {
+                if (this.activeSearch == handle) {
+                    this.setStatus(progress.describe());
+                }
+            });
+        });
+        handle.result().whenCompleteAsync((result, error) -> {
+            if (this.activeSearch != handle) {
+                return;
+            }
+            this.activeSearch = null;
+            if (error != null) {
+                this.setStatus(handle.isCancelled() ? "Search cancelled." : "Search failed.");
+            } else if (result == null) {
+                this.setStatus(biomeName + " not found within the search radius.");
+            } else {
+                this.setStatus(biomeName + " found at (" + result[0] + ", " + result[1] + "). Marker placed on map.");
+            }
+        }, this.world);
+    }
+    
+    /** Shows a line of text under the biome list. Must run on the world thread. */
+    private void setStatus(@Nonnull String text) {
+        this.statusText = text;
+        if (this.dismissed) {
+            return;
+        }
+        UICommandBuilder commandBuilder = new UICommandBuilder();
+        commandBuilder.set("#StatusLabel.Text", text);
+        this.sendUpdate(commandBuilder, false);
+    }
+    
+    @Override
+    public void onDismiss(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
+        // A running search keeps going and still places its marker, but no longer updates this page
+        this.dismissed = true;
+        PathfinderSearchHandle<int[]> handle = this.activeSearch;
+        if (handle != null) {
+            handle.onProgress(null);
+        }
+        super.onDismiss(ref, store);
     }
     
     private void clearAllMarkers(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
@@ -357,7 +444,7 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
 
     public static class PathfinderEventData {
         static final String KEY_ACTION = "Action";
-        static final String KEY_BIOME = "Biome";
+        static final String KEY_ROW = "Row";
         static final String KEY_SEARCH_QUERY = "SearchQuery";
         
         public static final BuilderCodec<PathfinderEventData> CODEC = BuilderCodec.builder(
@@ -365,14 +452,14 @@ public class PathfinderBiomeSearchPage extends InteractiveCustomUIPage<Pathfinde
         )
         .append(new KeyedCodec<>("Action", Codec.STRING), (data, s) -> data.action = s, data -> data.action)
         .add()
-        .append(new KeyedCodec<>("Biome", Codec.STRING), (data, s) -> data.biome = s, data -> data.biome)
+        .append(new KeyedCodec<>("Row", Codec.STRING), (data, s) -> data.row = s, data -> data.row)
         .add()
         .append(new KeyedCodec<>("@SearchQuery", Codec.STRING), (data, s) -> data.searchQuery = s, data -> data.searchQuery)
         .add()
         .build();
         
         private String action;
-        private String biome;
+        private String row;
         private String searchQuery;
     }
 }